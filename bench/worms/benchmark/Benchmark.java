@@ -0,0 +1,33 @@
+package worms.benchmark;
+
+/**
+ * A single micro-benchmark, run repeatedly by a {@link BenchmarkRunner}.
+ *
+ * The value returned by each operation is consumed by the runner, so that
+ * the JIT cannot eliminate the measured code as dead code.
+ */
+public abstract class Benchmark {
+
+	private final String name;
+
+	protected Benchmark(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Prepare the state used by the operations of this benchmark; called once
+	 * before the warm-up iterations start.
+	 */
+	public void setUp() {
+	}
+
+	/**
+	 * Perform one operation of this benchmark.
+	 */
+	public abstract double operation();
+
+}
@@ -0,0 +1,164 @@
+package worms.benchmark;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Runs benchmarks in the calling thread and reports their throughput (in
+ * operations per second) and allocation rate (in bytes per operation).
+ *
+ * Each benchmark first runs a number of warm-up iterations, whose results are
+ * discarded, followed by a number of measured iterations. The reported score
+ * is the mean of the measured iterations, the reported error is their
+ * standard deviation.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Number of operations performed between two checks of the clock
+	 */
+	private static final int BATCH_SIZE = 1024;
+
+	public static class Result {
+		private final String name;
+		private final double opsPerSecond;
+		private final double error;
+		private final double bytesPerOp;
+
+		private Result(String name, double opsPerSecond, double error,
+				double bytesPerOp) {
+			this.name = name;
+			this.opsPerSecond = opsPerSecond;
+			this.error = error;
+			this.bytesPerOp = bytesPerOp;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public double getOpsPerSecond() {
+			return opsPerSecond;
+		}
+
+		public double getError() {
+			return error;
+		}
+
+		/**
+		 * NaN if the JVM does not support measuring thread allocations
+		 */
+		public double getBytesPerOp() {
+			return bytesPerOp;
+		}
+	}
+
+	private final int warmupIterations;
+	private final int measurementIterations;
+	private final long iterationTimeNanos;
+
+	/**
+	 * Sink for the results of the benchmarked operations
+	 */
+	private volatile double sink;
+
+	public BenchmarkRunner(int warmupIterations, int measurementIterations,
+			long iterationTimeMillis) {
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationTimeNanos = iterationTimeMillis * 1000000L;
+	}
+
+	public Result run(Benchmark benchmark) {
+		benchmark.setUp();
+		for (int i = 0; i < warmupIterations; i++) {
+			runIteration(benchmark);
+		}
+
+		double[] scores = new double[measurementIterations];
+		long totalOps = 0;
+		long allocatedBefore = getAllocatedBytes();
+		for (int i = 0; i < measurementIterations; i++) {
+			long start = System.nanoTime();
+			long ops = runIteration(benchmark);
+			long duration = System.nanoTime() - start;
+			scores[i] = ops * 1e9 / duration;
+			totalOps += ops;
+		}
+		long allocatedAfter = getAllocatedBytes();
+
+		double bytesPerOp = Double.NaN;
+		if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+			bytesPerOp = (double) (allocatedAfter - allocatedBefore) / totalOps;
+		}
+		return new Result(benchmark.getName(), mean(scores), stddev(scores),
+				bytesPerOp);
+	}
+
+	public void runAll(List<? extends Benchmark> benchmarks, PrintStream out) {
+		out.println(String.format("%-40s %15s %12s %14s", "Benchmark",
+				"Score (ops/s)", "Error", "Alloc (B/op)"));
+		for (Benchmark benchmark : benchmarks) {
+			print(run(benchmark), out);
+		}
+	}
+
+	public static void print(Result result, PrintStream out) {
+		out.println(String.format("%-40s %15.1f %12.1f %14.2f",
+				result.getName(), result.getOpsPerSecond(), result.getError(),
+				result.getBytesPerOp()));
+	}
+
+	private long runIteration(Benchmark benchmark) {
+		double result = 0;
+		long ops = 0;
+		long deadline = System.nanoTime() + iterationTimeNanos;
+		do {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				result += benchmark.operation();
+			}
+			ops += BATCH_SIZE;
+		} while (System.nanoTime() < deadline);
+		sink = result;
+		return ops;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far, or
+	 * -1 if not supported by the JVM.
+	 */
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported()
+					&& sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread()
+						.getId());
+			}
+		}
+		return -1;
+	}
+
+	private static double mean(double[] values) {
+		double sum = 0;
+		for (double value : values) {
+			sum += value;
+		}
+		return sum / values.length;
+	}
+
+	private static double stddev(double[] values) {
+		if (values.length < 2) {
+			return 0;
+		}
+		double mean = mean(values);
+		double sum = 0;
+		for (double value : values) {
+			sum += (value - mean) * (value - mean);
+		}
+		return Math.sqrt(sum / (values.length - 1));
+	}
+}
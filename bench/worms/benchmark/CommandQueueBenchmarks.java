@@ -0,0 +1,154 @@
+package worms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import worms.gui.game.commands.CommandProcessor;
+import worms.gui.game.commands.InstantaneousCommand;
+import worms.model.Worm;
+
+/**
+ * Benchmarks for the command queue, in particular with many threads
+ * enqueueing commands at once.
+ *
+ * Usage: <code>CommandQueueBenchmarks [filter]</code>
+ */
+public class CommandQueueBenchmarks {
+
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int MEASUREMENT_ITERATIONS = 10;
+	private static final long ITERATION_TIME_MILLIS = 1000;
+
+	/**
+	 * Number of commands enqueued per round of the contention benchmark, in
+	 * total over all producers
+	 */
+	private static final int NB_CONTENDED_COMMANDS = 1 << 20;
+
+	private static final int MAX_NB_PRODUCERS = 64;
+
+	/**
+	 * A command that does nothing, except count its executions
+	 */
+	private static class NoOp extends InstantaneousCommand {
+		private static long nbExecuted;
+
+		private NoOp() {
+			super(null, null);
+		}
+
+		@Override
+		protected boolean canExecute() {
+			return true;
+		}
+
+		@Override
+		protected void doStartExecution() {
+			nbExecuted++;
+		}
+
+		@Override
+		public Worm getWorm() {
+			return null;
+		}
+	}
+
+	public static List<Benchmark> createBenchmarks() {
+		List<Benchmark> result = new ArrayList<Benchmark>();
+
+		result.add(new Benchmark("enqueue and execute, single thread") {
+			private final CommandProcessor processor = new CommandProcessor();
+
+			@Override
+			public double operation() {
+				processor.enqueueCommand(new NoOp());
+				processor.advanceCommandQueue(0);
+				return NoOp.nbExecuted;
+			}
+		});
+
+		result.add(new Benchmark("enqueue 64 and execute, single thread") {
+			private final CommandProcessor processor = new CommandProcessor();
+
+			@Override
+			public double operation() {
+				for (int i = 0; i < 64; i++) {
+					processor.enqueueCommand(new NoOp());
+				}
+				processor.advanceCommandQueue(0);
+				return NoOp.nbExecuted;
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Enqueue commands on the given number of threads at once, while the
+	 * calling thread executes them, and print the throughput and latencies.
+	 */
+	static void runContended(final int nbProducers)
+			throws InterruptedException {
+		for (int round = 0; round < WARMUP_ITERATIONS + 1; round++) {
+			final CommandProcessor processor = new CommandProcessor(
+					CommandProcessor.DEFAULT_CAPACITY,
+					CommandProcessor.OverflowPolicy.WAIT);
+			processor.setRecordingLatencies(true);
+			final int nbPerProducer = NB_CONTENDED_COMMANDS / nbProducers;
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Thread> producers = new ArrayList<Thread>();
+			for (int i = 0; i < nbProducers; i++) {
+				Thread producer = new Thread("Producer " + i) {
+					@Override
+					public void run() {
+						try {
+							start.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						for (int j = 0; j < nbPerProducer; j++) {
+							processor.enqueueCommand(new NoOp());
+						}
+					}
+				};
+				producer.start();
+				producers.add(producer);
+			}
+
+			long expected = NoOp.nbExecuted + (long) nbPerProducer
+					* nbProducers;
+			long startTime = System.nanoTime();
+			start.countDown();
+			while (NoOp.nbExecuted < expected) {
+				processor.advanceCommandQueue(0);
+			}
+			long duration = System.nanoTime() - startTime;
+			for (Thread producer : producers) {
+				producer.join();
+			}
+
+			if (round == WARMUP_ITERATIONS) {
+				System.out.println(String.format(
+						"%2d producers: %12.1f commands/s, rejected %d%n"
+								+ "    enqueue (ns) %s%n"
+								+ "    queued (ns)  %s", nbProducers,
+						nbPerProducer * nbProducers * 1e9 / duration,
+						processor.getNbRejectedCommands(),
+						processor.getEnqueueLatencies(),
+						processor.getQueueLatencies()));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ITERATIONS,
+				MEASUREMENT_ITERATIONS, ITERATION_TIME_MILLIS);
+		runner.runAll(WormBenchmarks.filter(createBenchmarks(), args),
+				System.out);
+
+		for (int nbProducers = 1; nbProducers <= MAX_NB_PRODUCERS; nbProducers *= 2) {
+			runContended(nbProducers);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package worms.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import worms.gui.GameState;
+import worms.gui.GameStateFile;
+import worms.model.Facade;
+import worms.model.IFacade;
+
+/**
+ * Measures saving and loading a game with a million worms, compared to
+ * creating its worms one at a time.
+ *
+ * Usage: <code>GameStateFileBenchmarks</code>
+ */
+public class GameStateFileBenchmarks {
+
+	private static final int WARMUP_ITERATIONS = 3;
+	private static final int MEASUREMENT_ITERATIONS = 5;
+
+	private static final int NB_WORMS = 1000000;
+
+	private static final String[] NAMES = { "Shari", "Shannon", "Willard",
+			"Jodi", "Santos", "Ross", "Cora", "Jacob", "Homer", "Kara" };
+
+	/**
+	 * Create a game with the given number of random worms.
+	 */
+	static GameState createGame(IFacade facade, int nbWorms) {
+		Random random = new Random(nbWorms);
+		GameState state = new GameState(facade, nbWorms, 1024, 768);
+		for (int i = 0; i < nbWorms; i++) {
+			state.addWorm(facade.createWorm(random.nextDouble() * 1000,
+					random.nextDouble() * 1000, random.nextDouble() * 2
+							* Math.PI, 0.25 + random.nextDouble(),
+					NAMES[i % NAMES.length]));
+		}
+		state.selectNextWorm();
+		return state;
+	}
+
+	private static void report(String name, long[] durations) {
+		long min = Long.MAX_VALUE;
+		double sum = 0;
+		for (long duration : durations) {
+			min = Math.min(min, duration);
+			sum += duration;
+		}
+		System.out.println(String.format("%-32s mean %8.1f ms  min %8.1f ms",
+				name, sum / durations.length / 1e6, min / 1e6));
+	}
+
+	private static void measureLoad(String name, File file, IFacade facade)
+			throws IOException {
+		long[] durations = new long[MEASUREMENT_ITERATIONS];
+		for (int i = 0; i < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; i++) {
+			long start = System.nanoTime();
+			GameStateFile.load(file, facade);
+			long duration = System.nanoTime() - start;
+			if (i >= WARMUP_ITERATIONS) {
+				durations[i - WARMUP_ITERATIONS] = duration;
+			}
+		}
+		report(name, durations);
+	}
+
+	public static void main(String[] args) throws IOException {
+		IFacade facade = new Facade();
+
+		long[] durations = new long[MEASUREMENT_ITERATIONS];
+		GameState state = null;
+		for (int i = 0; i < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; i++) {
+			long start = System.nanoTime();
+			state = createGame(facade, NB_WORMS);
+			long duration = System.nanoTime() - start;
+			if (i >= WARMUP_ITERATIONS) {
+				durations[i - WARMUP_ITERATIONS] = duration;
+			}
+		}
+		report("create " + NB_WORMS + " worms", durations);
+
+		File plain = File.createTempFile("worms", ".plain");
+		File compressed = File.createTempFile("worms", ".deflate");
+		try {
+			for (int i = 0; i < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; i++) {
+				long start = System.nanoTime();
+				GameStateFile.save(state, plain, false);
+				long duration = System.nanoTime() - start;
+				if (i >= WARMUP_ITERATIONS) {
+					durations[i - WARMUP_ITERATIONS] = duration;
+				}
+			}
+			report("save (" + plain.length() / 1024 + " KiB)", durations);
+			GameStateFile.save(state, compressed, true);
+			System.out.println(String.format("compressed: %d KiB",
+					compressed.length() / 1024));
+
+			measureLoad("load", plain, facade);
+			measureLoad("load compressed", compressed, facade);
+		} finally {
+			plain.delete();
+			compressed.delete();
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package worms.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import worms.gui.GUIConstants;
+import worms.gui.GUIUtils;
+import worms.gui.GameState;
+import worms.gui.game.PlayGameScreen;
+import worms.gui.game.sprites.WormSprite;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Benchmarks for the per-frame work of the play game screen with many worms.
+ *
+ * The screen is never shown, so these benchmarks also run in headless mode
+ * (<code>-Djava.awt.headless=true</code>). They must be run from the root of
+ * the project, so that the worm image can be found.
+ *
+ * Usage: <code>ScreenBenchmarks [filter]</code>
+ */
+public class ScreenBenchmarks {
+
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int MEASUREMENT_ITERATIONS = 10;
+	private static final long ITERATION_TIME_MILLIS = 1000;
+
+	static final int NB_WORMS = 10000;
+
+	/**
+	 * Number of worms in the benchmarks where all of them are in view
+	 */
+	static final int NB_ZOOMED_OUT_WORMS = 50000;
+
+	/**
+	 * Create a game with the given number of worms, spread over an area that
+	 * is about ten times the size of the default window.
+	 */
+	static GameState createGame(IFacade facade, int nbWorms) {
+		GameState state = new GameState(facade, 0,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		Random random = new Random(0);
+		for (int i = 0; i < nbWorms; i++) {
+			double x = (random.nextDouble() - 0.5) * 200;
+			double y = (random.nextDouble() - 0.5) * 150;
+			state.addWorm(facade.createWorm(x, y, random.nextDouble() * 2
+					* Math.PI, 0.25 + random.nextDouble() / 4, "Worm"));
+		}
+		state.selectNextWorm();
+		return state;
+	}
+
+	static PlayGameScreen createScreen(GameState state) {
+		PlayGameScreen screen = PlayGameScreen.create(null, state, false);
+		screen.getPanel().setSize(GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		screen.createSprites();
+		return screen;
+	}
+
+	public static List<Benchmark> createBenchmarks() {
+		List<Benchmark> result = new ArrayList<Benchmark>();
+
+		result.add(new Benchmark("createSprites (" + NB_WORMS + " worms)") {
+			private GameState state;
+
+			@Override
+			public void setUp() {
+				state = createGame(new Facade(), NB_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				return createScreen(state).getSpritesOfType(WormSprite.class)
+						.size();
+			}
+		});
+
+		/*
+		 * What the Move and Jump commands do on every tick
+		 */
+		result.add(new Benchmark("getWormSprite (" + NB_WORMS + " worms)") {
+			private PlayGameScreen screen;
+			private Worm[] worms;
+			private int i;
+
+			@Override
+			public void setUp() {
+				GameState state = createGame(new Facade(), NB_WORMS);
+				screen = createScreen(state);
+				worms = state.getWorms().toArray(new Worm[0]);
+			}
+
+			@Override
+			public double operation() {
+				return screen.getWormSprite(worms[i++ % worms.length])
+						.getCenterX();
+			}
+		});
+
+		/*
+		 * What the painter does at the start of every frame
+		 */
+		result.add(new Benchmark("getSpritesOfType (" + NB_WORMS + " worms)") {
+			private PlayGameScreen screen;
+
+			@Override
+			public void setUp() {
+				screen = createScreen(createGame(new Facade(), NB_WORMS));
+			}
+
+			@Override
+			public double operation() {
+				return screen.getSpritesOfType(WormSprite.class).size();
+			}
+		});
+
+		result.add(createPaintBenchmark("paint, idle frame", true, 0));
+		result.add(createPaintBenchmark("paint, 1 worm moved", true, 1));
+		result.add(createPaintBenchmark("paint, 1 worm moved (no layer)",
+				false, 1));
+
+		/*
+		 * Pan a camera that shows the whole world by a pixel, so that every
+		 * worm is drawn again
+		 */
+		result.add(new Benchmark("paint, zoomed out and panned ("
+				+ NB_ZOOMED_OUT_WORMS + " worms)") {
+			private PlayGameScreen screen;
+			private Graphics2D graphics;
+			private int frame;
+
+			@Override
+			public void setUp() {
+				screen = createScreen(createGame(new Facade(),
+						NB_ZOOMED_OUT_WORMS));
+				screen.setCamera(0, 0, GUIConstants.DEFAULT_WINDOW_WIDTH
+						/ GUIUtils.meterToPixels(200));
+				graphics = createGraphics(screen);
+			}
+
+			@Override
+			public double operation() {
+				screen.panCamera((frame++ % 2 == 0) ? 1 : -1, 0);
+				screen.getPainter().paint(graphics);
+				return frame;
+			}
+		});
+
+		return result;
+	}
+
+	private static Graphics2D createGraphics(PlayGameScreen screen) {
+		BufferedImage image = new BufferedImage(screen.getScreenWidth(),
+				screen.getScreenHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D result = image.createGraphics();
+		result.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		return result;
+	}
+
+	/**
+	 * Paint a frame in which the given number of (unselected) worms moved by
+	 * a pixel.
+	 */
+	private static Benchmark createPaintBenchmark(String name,
+			final boolean sceneLayerEnabled, final int nbMovedWorms) {
+		return new Benchmark(name + " (" + NB_WORMS + " worms)") {
+			private PlayGameScreen screen;
+			private Graphics2D graphics;
+			private WormSprite[] moved;
+			private int frame;
+
+			@Override
+			public void setUp() {
+				GameState state = createGame(new Facade(), NB_WORMS);
+				screen = createScreen(state);
+				screen.getPainter().setSceneLayerEnabled(sceneLayerEnabled);
+				graphics = createGraphics(screen);
+				moved = new WormSprite[nbMovedWorms];
+				int i = 0;
+				for (Worm worm : state.getWorms()) {
+					if (i < nbMovedWorms && worm != state.getSelectedWorm()) {
+						moved[i++] = screen.getWormSprite(worm);
+					}
+				}
+				screen.getPainter().paint(graphics);
+			}
+
+			@Override
+			public double operation() {
+				double dx = (frame++ % 2 == 0) ? 1 : -1;
+				for (WormSprite sprite : moved) {
+					screen.moveWormSprite(sprite, sprite.getCenterX() + dx,
+							sprite.getCenterY());
+				}
+				screen.getPainter().paint(graphics);
+				return frame;
+			}
+		};
+	}
+
+	public static void main(String[] args) {
+		BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ITERATIONS,
+				MEASUREMENT_ITERATIONS, ITERATION_TIME_MILLIS);
+		runner.runAll(WormBenchmarks.filter(createBenchmarks(), args),
+				System.out);
+	}
+}
@@ -0,0 +1,122 @@
+package worms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import worms.gui.GUIConstants;
+import worms.gui.GameState;
+import worms.gui.MultiGameRunner;
+import worms.gui.SimulationEngine;
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Benchmarks for headless simulations of complete matches.
+ *
+ * Usage: <code>SimulationBenchmarks [filter]</code>
+ */
+public class SimulationBenchmarks {
+
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int MEASUREMENT_ITERATIONS = 10;
+	private static final long ITERATION_TIME_MILLIS = 1000;
+
+	/**
+	 * Number of games run at once by the parallel benchmark
+	 */
+	private static final int NB_PARALLEL_GAMES = 1024;
+
+	/**
+	 * Upper bound on the number of ticks of a single match
+	 */
+	static final long MAX_TICKS = 100000;
+
+	/**
+	 * Create a match with the worms of a new game with the given seed, in
+	 * which every worm moves, turns and jumps once. The commands are not
+	 * attached to a screen.
+	 */
+	static GameState createMatch(IFacade facade, long seed) {
+		GameState state = new GameState(facade, seed,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		state.startGame();
+		for (Worm worm : state.getWorms()) {
+			state.enqueueCommand(new Move(facade, worm, 1, null));
+			state.enqueueCommand(new Turn(facade, worm, Math.PI / 4, null));
+			state.enqueueCommand(new Jump(facade, worm, null));
+		}
+		return state;
+	}
+
+	public static List<Benchmark> createBenchmarks() {
+		List<Benchmark> result = new ArrayList<Benchmark>();
+
+		result.add(new Benchmark("Headless match") {
+			private final IFacade facade = new Facade();
+			private long seed;
+
+			@Override
+			public double operation() {
+				SimulationEngine engine = new SimulationEngine(createMatch(
+						facade, seed++));
+				return engine.runUntilIdle(MAX_TICKS);
+			}
+		});
+
+		result.add(new Benchmark("Headless match, publishing snapshots") {
+			private final IFacade facade = new Facade();
+			private long seed;
+
+			@Override
+			public double operation() {
+				GameState state = createMatch(facade, seed++);
+				state.setPublishingSnapshots(true);
+				SimulationEngine engine = new SimulationEngine(state);
+				return engine.runUntilIdle(MAX_TICKS);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Run a batch of matches on a MultiGameRunner with the given number of
+	 * threads and print the throughput and tick latencies.
+	 */
+	static void runParallelMatches(int nbThreads) throws InterruptedException {
+		IFacade facade = new Facade();
+		for (int round = 0; round < WARMUP_ITERATIONS + 1; round++) {
+			MultiGameRunner runner = new MultiGameRunner(nbThreads);
+			for (int i = 0; i < NB_PARALLEL_GAMES; i++) {
+				runner.addGame(createMatch(facade, i));
+			}
+			long start = System.nanoTime();
+			runner.runUntilIdle(MAX_TICKS);
+			long duration = System.nanoTime() - start;
+			runner.shutdown();
+			if (round == WARMUP_ITERATIONS) {
+				System.out.println(String.format(
+						"%2d threads: %10.1f matches/s, tick latency (ns) %s",
+						nbThreads, NB_PARALLEL_GAMES * 1e9 / duration, runner
+								.getTotalTickLatencies()));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ITERATIONS,
+				MEASUREMENT_ITERATIONS, ITERATION_TIME_MILLIS);
+		runner.runAll(WormBenchmarks.filter(createBenchmarks(), args),
+				System.out);
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		for (int nbThreads = 1; nbThreads <= cores; nbThreads *= 2) {
+			runParallelMatches(nbThreads);
+		}
+	}
+}
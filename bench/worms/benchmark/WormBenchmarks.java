@@ -0,0 +1,579 @@
+package worms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.ModelException;
+import worms.model.Worm;
+import worms.model.WormWorld;
+
+/**
+ * Benchmarks for the physics of worms, both called directly on
+ * <code>Worm</code> and through the <code>Facade</code>.
+ *
+ * Usage: <code>WormBenchmarks [filter]</code>, where only the benchmarks
+ * whose name contains <code>filter</code> are run.
+ */
+public class WormBenchmarks {
+
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int MEASUREMENT_ITERATIONS = 10;
+	private static final long ITERATION_TIME_MILLIS = 1000;
+
+	/**
+	 * Number of distinct jump times sampled by the jump step benchmarks
+	 */
+	private static final int NB_SAMPLES = 16;
+
+	/**
+	 * Number of worms passed to the bulk facade benchmarks
+	 */
+	private static final int NB_BULK_WORMS = 1024;
+
+	private static final IFacade facade = new Facade();
+
+	/**
+	 * Create a worm that can jump, move and turn many times (one action point
+	 * per step) before running out of action points.
+	 */
+	static Worm createWorm() {
+		return new Worm("Benchmark", 1, Math.PI / 4, 0, 0);
+	}
+
+	/**
+	 * Create a worm that faces right, so that each step costs a single action
+	 * point.
+	 */
+	static Worm createMovingWorm() {
+		return new Worm("Benchmark", 1, 0, 0, 0);
+	}
+
+	/**
+	 * Create a worm that can neither move, turn nor jump: it has no action
+	 * points left and faces downwards.
+	 */
+	static Worm createStuckWorm() {
+		return facade.restoreWorm(0, 0, 3 * Math.PI / 2, 1, "Benchmark", 0);
+	}
+
+	static List<Worm> createMovingWorms(int nbWorms) {
+		List<Worm> result = new ArrayList<Worm>();
+		for (int i = 0; i < nbWorms; i++) {
+			result.add(createMovingWorm());
+		}
+		return result;
+	}
+
+	static WormWorld createMovingWorld(int nbWorms) {
+		WormWorld result = new WormWorld(nbWorms);
+		for (int i = 0; i < nbWorms; i++) {
+			result.add(createMovingWorm());
+		}
+		return result;
+	}
+
+	static double sampleTime(Worm worm, int i) {
+		return worm.jumpTime() * (i % NB_SAMPLES) / NB_SAMPLES;
+	}
+
+	public static List<Benchmark> createBenchmarks() {
+		List<Benchmark> result = new ArrayList<Benchmark>();
+
+		result.add(new Benchmark("Worm.getMass") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				return worm.getMass();
+			}
+		});
+
+		result.add(new Benchmark("Worm.jumpTime") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				return worm.jumpTime();
+			}
+		});
+
+		result.add(new Benchmark("Worm.jumpStep") {
+			private Worm worm;
+			private double[] times = new double[NB_SAMPLES];
+			private int i;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+				for (int j = 0; j < NB_SAMPLES; j++) {
+					times[j] = sampleTime(worm, j);
+				}
+			}
+
+			@Override
+			public double operation() {
+				return worm.jumpStep(times[i++ % NB_SAMPLES])[1];
+			}
+		});
+
+		result.add(new Benchmark("Worm.jumpStep (buffer)") {
+			private Worm worm;
+			private double[] times = new double[NB_SAMPLES];
+			private double[] xy = new double[2];
+			private int i;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+				for (int j = 0; j < NB_SAMPLES; j++) {
+					times[j] = sampleTime(worm, j);
+				}
+			}
+
+			@Override
+			public double operation() {
+				worm.jumpStep(times[i++ % NB_SAMPLES], xy);
+				return xy[1];
+			}
+		});
+
+		result.add(new Benchmark("Worm.jumpTrajectory") {
+			private Worm worm;
+			private double[] trajectory = new double[2 * (NB_SAMPLES + 1)];
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				worm.jumpTrajectory(NB_SAMPLES, trajectory);
+				return trajectory[NB_SAMPLES];
+			}
+		});
+
+		/*
+		 * Moving and turning use up action points; the worm is replaced by a
+		 * fresh one whenever it runs out, which is amortized over thousands of
+		 * operations.
+		 */
+		result.add(new Benchmark("Worm.activeMove") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createMovingWorm();
+			}
+
+			@Override
+			public double operation() {
+				if (!worm.canMove(1)) {
+					worm = createMovingWorm();
+				}
+				worm.activeMove(1);
+				return worm.getX();
+			}
+		});
+
+		result.add(new Benchmark("Worm.activeTurn") {
+			private Worm worm;
+			private double angle = 0.1;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				if (!worm.canTurn(angle)) {
+					worm = createWorm();
+				}
+				worm.activeTurn(angle);
+				angle = -angle;
+				return worm.getDirection();
+			}
+		});
+
+		result.add(new Benchmark("Facade.getMass") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				return facade.getMass(worm);
+			}
+		});
+
+		result.add(new Benchmark("Facade.getJumpTime") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				return facade.getJumpTime(worm);
+			}
+		});
+
+		result.add(new Benchmark("Facade.getJumpStep") {
+			private Worm worm;
+			private double[] times = new double[NB_SAMPLES];
+			private int i;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+				for (int j = 0; j < NB_SAMPLES; j++) {
+					times[j] = sampleTime(worm, j);
+				}
+			}
+
+			@Override
+			public double operation() {
+				return facade.getJumpStep(worm, times[i++ % NB_SAMPLES])[1];
+			}
+		});
+
+		result.add(new Benchmark("Facade.fillJumpStep") {
+			private Worm worm;
+			private double[] times = new double[NB_SAMPLES];
+			private double[] xy = new double[2];
+			private int i;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+				for (int j = 0; j < NB_SAMPLES; j++) {
+					times[j] = sampleTime(worm, j);
+				}
+			}
+
+			@Override
+			public double operation() {
+				facade.fillJumpStep(worm, times[i++ % NB_SAMPLES], xy);
+				return xy[1];
+			}
+		});
+
+		/*
+		 * The work done by PlayGameScreenPainter.drawJumpMarkers for one worm
+		 * in one frame: the jump time, followed by the trajectory samples.
+		 */
+		result.add(new Benchmark("Facade jump markers (per step)") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				double time = facade.getJumpTime(worm);
+				double result = 0;
+				for (int i = 1; i <= NB_SAMPLES; i++) {
+					result += facade.getJumpStep(worm, i * time / NB_SAMPLES)[1];
+				}
+				return result;
+			}
+		});
+
+		result.add(new Benchmark("Facade jump markers (trajectory)") {
+			private Worm worm;
+			private double[] trajectory = new double[2 * (NB_SAMPLES + 1)];
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				facade.getJumpTime(worm);
+				facade.fillJumpTrajectory(worm, NB_SAMPLES, trajectory);
+				return trajectory[NB_SAMPLES];
+			}
+		});
+
+		result.add(new Benchmark("Facade.move") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createMovingWorm();
+			}
+
+			@Override
+			public double operation() {
+				if (!facade.canMove(worm, 1)) {
+					worm = createMovingWorm();
+				}
+				facade.move(worm, 1);
+				return facade.getX(worm);
+			}
+		});
+
+		result.add(new Benchmark("Facade.turn") {
+			private Worm worm;
+			private double angle = 0.1;
+
+			@Override
+			public void setUp() {
+				worm = createWorm();
+			}
+
+			@Override
+			public double operation() {
+				if (!facade.canTurn(worm, angle)) {
+					worm = createWorm();
+				}
+				facade.turn(worm, angle);
+				angle = -angle;
+				return facade.getOrientation(worm);
+			}
+		});
+
+		/*
+		 * Actions that fail, as when a bot probes candidate actions: reported
+		 * by an exception, or by a result
+		 */
+		result.add(new Benchmark("Facade.move (failing)") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createStuckWorm();
+			}
+
+			@Override
+			public double operation() {
+				try {
+					facade.move(worm, 1);
+					return 1;
+				} catch (ModelException e) {
+					return 0;
+				}
+			}
+		});
+
+		result.add(new Benchmark("Facade.tryMove (failing)") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createStuckWorm();
+			}
+
+			@Override
+			public double operation() {
+				return facade.tryMove(worm, 1).ordinal();
+			}
+		});
+
+		result.add(new Benchmark("Facade.jump (failing)") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createStuckWorm();
+			}
+
+			@Override
+			public double operation() {
+				try {
+					facade.jump(worm);
+					return 1;
+				} catch (ModelException e) {
+					return 0;
+				}
+			}
+		});
+
+		result.add(new Benchmark("Facade.tryJump (failing)") {
+			private Worm worm;
+
+			@Override
+			public void setUp() {
+				worm = createStuckWorm();
+			}
+
+			@Override
+			public double operation() {
+				return facade.tryJump(worm).ordinal();
+			}
+		});
+
+		/*
+		 * What a painter needs for each worm, per worm and in bulk
+		 */
+		result.add(new Benchmark("Facade getters (" + NB_BULK_WORMS
+				+ " worms)") {
+			private List<Worm> worms;
+
+			@Override
+			public void setUp() {
+				worms = createMovingWorms(NB_BULK_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				double sum = 0;
+				for (Worm worm : worms) {
+					sum += facade.getX(worm) + facade.getY(worm)
+							+ facade.getOrientation(worm)
+							+ facade.getRadius(worm)
+							+ facade.getActionPoints(worm)
+							+ facade.getMaxActionPoints(worm);
+				}
+				return sum;
+			}
+		});
+
+		result.add(new Benchmark("Facade.fillStates (" + NB_BULK_WORMS
+				+ " worms)") {
+			private List<Worm> worms;
+			private final double[] xs = new double[NB_BULK_WORMS];
+			private final double[] ys = new double[NB_BULK_WORMS];
+			private final double[] orientations = new double[NB_BULK_WORMS];
+			private final double[] radii = new double[NB_BULK_WORMS];
+			private final int[] actionPoints = new int[NB_BULK_WORMS];
+			private final int[] maxActionPoints = new int[NB_BULK_WORMS];
+
+			@Override
+			public void setUp() {
+				worms = createMovingWorms(NB_BULK_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				facade.fillStates(worms, xs, ys, orientations, radii,
+						actionPoints, maxActionPoints);
+				return xs[NB_BULK_WORMS - 1];
+			}
+		});
+
+		result.add(new Benchmark("Facade.move (" + NB_BULK_WORMS + " worms)") {
+			private List<Worm> worms;
+
+			@Override
+			public void setUp() {
+				worms = createMovingWorms(NB_BULK_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				int moved = 0;
+				for (Worm worm : worms) {
+					if (facade.canMove(worm, 1)) {
+						facade.move(worm, 1);
+						moved++;
+					}
+				}
+				if (moved == 0) {
+					worms = createMovingWorms(NB_BULK_WORMS);
+				}
+				return moved;
+			}
+		});
+
+		result.add(new Benchmark("Facade.moveAll (" + NB_BULK_WORMS
+				+ " worms)") {
+			private List<Worm> worms;
+
+			@Override
+			public void setUp() {
+				worms = createMovingWorms(NB_BULK_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				int moved = facade.moveAll(worms, 1);
+				if (moved == 0) {
+					worms = createMovingWorms(NB_BULK_WORMS);
+				}
+				return moved;
+			}
+		});
+
+		result.add(new Benchmark("WormWorld.moveAll (" + NB_BULK_WORMS
+				+ " worms)") {
+			private WormWorld world;
+
+			@Override
+			public void setUp() {
+				world = createMovingWorld(NB_BULK_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				int moved = world.moveAll(1);
+				if (moved == 0) {
+					world = createMovingWorld(NB_BULK_WORMS);
+				}
+				return moved;
+			}
+		});
+
+		result.add(new Benchmark("WormWorld.computeMoves (" + NB_BULK_WORMS
+				+ " worms)") {
+			private WormWorld world;
+			private final double[] newXs = new double[NB_BULK_WORMS];
+			private final double[] newYs = new double[NB_BULK_WORMS];
+			private final int[] costs = new int[NB_BULK_WORMS];
+			private final boolean[] canMove = new boolean[NB_BULK_WORMS];
+
+			@Override
+			public void setUp() {
+				world = createMovingWorld(NB_BULK_WORMS);
+			}
+
+			@Override
+			public double operation() {
+				return world.computeMoves(1, newXs, newYs, costs, canMove);
+			}
+		});
+
+		return result;
+	}
+
+	public static List<Benchmark> filter(List<Benchmark> benchmarks,
+			String[] args) {
+		if (args.length == 0) {
+			return benchmarks;
+		}
+		List<Benchmark> result = new ArrayList<Benchmark>();
+		for (Benchmark benchmark : benchmarks) {
+			if (benchmark.getName().contains(args[0])) {
+				result.add(benchmark);
+			}
+		}
+		return result;
+	}
+
+	public static void main(String[] args) {
+		BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ITERATIONS,
+				MEASUREMENT_ITERATIONS, ITERATION_TIME_MILLIS);
+		runner.runAll(filter(createBenchmarks(), args), System.out);
+	}
+}
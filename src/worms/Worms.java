@@ -20,6 +20,10 @@ public class Worms {
 			} else if ("-seed".equals(arg)) {
 				long randomSeed = Long.parseLong(args[++i]);
 				options.randomSeed = randomSeed;
+			} else if ("-active".equals(arg)) {
+				options.activeRendering = true;
+			} else if ("-journal".equals(arg)) {
+				options.journalFile = args[++i];
 			}
 		}
 
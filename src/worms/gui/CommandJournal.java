@@ -0,0 +1,314 @@
+package worms.gui;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Rename;
+import worms.gui.game.commands.Resize;
+import worms.gui.game.commands.Turn;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * An append-only binary journal of the commands enqueued in a game. A game
+ * that was started with {@link GameState#startGame()} is fully determined by
+ * its random seed, its size and its commands, so the journal suffices to
+ * replay it (see {@link JournalReplayer}).
+ *
+ * The journal starts with a header (magic number, format version, random
+ * seed, width and height), followed by a record per command: the type of the
+ * command, the number of ticks since the previous record, the index of its
+ * worm and the arguments of the command. Integers are written as variable
+ * length integers (7 bits per byte, least significant first; signed integers
+ * zig-zag encoded), doubles as their 8-byte IEEE representation and strings
+ * as their length and UTF-8 bytes.
+ *
+ * Records are written to the file through memory-mapped regions (see
+ * {@link MappedFileWriter}), without a system call per record. A record type
+ * of 0 marks the end of the journal, so that the (zero-filled) rest of the
+ * last region need not be truncated: the journal can be read at any time,
+ * even if the game never closed it.
+ */
+public class CommandJournal implements Closeable {
+
+	static final int MAGIC = 0x574A524E; // "WJRN"
+	static final int VERSION = 1;
+
+	static final int END = 0;
+	static final int MOVE = 1;
+	static final int JUMP = 2;
+	static final int TURN = 3;
+	static final int RENAME = 4;
+	static final int RESIZE = 5;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Size of the regions of the file that are mapped at once (in bytes)
+	 */
+	private static final int REGION_SIZE = 1 << 16;
+
+	private final GameState state;
+	private final MappedFileWriter writer;
+
+	/**
+	 * A record is encoded here before being copied to the mapped region
+	 */
+	private ByteBuffer record = ByteBuffer.allocate(256);
+
+	private final Map<Worm, Integer> wormIndices = new IdentityHashMap<Worm, Integer>();
+	private long lastTick;
+	private long nbRecords;
+	// true once the journal has been closed, or writing failed
+	private boolean stopped;
+
+	/**
+	 * Create a journal of the given game in the given file, replacing its
+	 * contents.
+	 */
+	public CommandJournal(File file, GameState state) throws IOException {
+		this.state = state;
+		this.writer = new MappedFileWriter(file, REGION_SIZE);
+
+		record.putInt(MAGIC);
+		writeVarLong(record, VERSION);
+		record.putLong(state.getRandomSeed());
+		writeVarLong(record, state.getWidth());
+		writeVarLong(record, state.getHeight());
+		flushRecord();
+	}
+
+	/**
+	 * The number of commands recorded so far
+	 */
+	public synchronized long getNbRecords() {
+		return nbRecords;
+	}
+
+	/**
+	 * Record that the given command was enqueued before the tick with the
+	 * given number. Commands of types that cannot be replayed are not
+	 * recorded.
+	 *
+	 * If writing fails, the error is reported and the journal stops
+	 * recording, rather than interrupting the game.
+	 */
+	synchronized void record(long tick, Command cmd) {
+		if (stopped) {
+			return;
+		}
+		int type = getType(cmd);
+		if (type == END) {
+			return;
+		}
+		try {
+			record.clear();
+			record.put((byte) type);
+			writeVarLong(record, tick - lastTick);
+			writeVarLong(record, getWormIndex(cmd.getWorm()));
+			record = writeArguments(record, type, cmd);
+			flushRecord();
+			lastTick = tick;
+			nbRecords++;
+		} catch (IOException e) {
+			e.printStackTrace();
+			stopped = true;
+		}
+	}
+
+	/**
+	 * The type of the record of the given command; END if commands of its
+	 * type cannot be recorded
+	 */
+	static int getType(Command cmd) {
+		if (cmd instanceof Move) {
+			return MOVE;
+		} else if (cmd instanceof Jump) {
+			return JUMP;
+		} else if (cmd instanceof Turn) {
+			return TURN;
+		} else if (cmd instanceof Rename) {
+			return RENAME;
+		} else if (cmd instanceof Resize) {
+			return RESIZE;
+		}
+		return END;
+	}
+
+	private int getWormIndex(Worm worm) throws IOException {
+		Integer result = wormIndices.get(worm);
+		if (result == null) {
+			// worms are only ever added, so their indices do not change
+			int index = 0;
+			for (Worm other : state.getWorms()) {
+				wormIndices.put(other, index++);
+			}
+			result = wormIndices.get(worm);
+			if (result == null) {
+				throw new IOException("Worm is not part of the game");
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Write the arguments of the given command, of the given type, to the
+	 * given buffer.
+	 *
+	 * @return the given buffer, or a larger copy of it if the arguments did
+	 *         not fit
+	 */
+	static ByteBuffer writeArguments(ByteBuffer buffer, int type,
+			Command cmd) {
+		switch (type) {
+		case MOVE:
+			writeVarLong(buffer, zigZag(((Move) cmd).getNbSteps()));
+			break;
+		case TURN:
+			buffer.putDouble(((Turn) cmd).getAngle());
+			break;
+		case RENAME:
+			byte[] name = ((Rename) cmd).getNewName().getBytes(UTF8);
+			buffer = ensureCapacity(buffer, name.length + 5);
+			writeVarLong(buffer, name.length);
+			buffer.put(name);
+			break;
+		case RESIZE:
+			buffer.putDouble(((Resize) cmd).getFactor());
+			break;
+		}
+		return buffer;
+	}
+
+	/**
+	 * @return the given buffer, or a larger copy of it if it has fewer than
+	 *         the given number of bytes remaining
+	 */
+	static ByteBuffer ensureCapacity(ByteBuffer buffer, int extra) {
+		if (buffer.remaining() >= extra) {
+			return buffer;
+		}
+		ByteBuffer result = ByteBuffer
+				.allocate(2 * (buffer.position() + extra));
+		buffer.flip();
+		result.put(buffer);
+		return result;
+	}
+
+	private void flushRecord() throws IOException {
+		record.flip();
+		writer.write(record);
+	}
+
+	/**
+	 * Write all records to the storage device and truncate the file after
+	 * the last record. The journal records no more commands afterwards.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!writer.isOpen()) {
+			return;
+		}
+		stopped = true;
+		try {
+			record.clear();
+			record.put((byte) END);
+			flushRecord();
+		} finally {
+			writer.close();
+		}
+	}
+
+	static void writeVarLong(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * @throws IOException
+	 *             if the buffer ends within the integer, or the integer is
+	 *             longer than 64 bits
+	 */
+	static long readVarLong(ByteBuffer buffer) throws IOException {
+		try {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				byte b = buffer.get();
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			// reported below
+		}
+		throw new IOException("Invalid variable length integer");
+	}
+
+	/**
+	 * Read a length, as written by writeVarLong, of data that follows it in
+	 * the given buffer.
+	 *
+	 * @throws IOException
+	 *             if the length is negative or exceeds the remaining bytes
+	 *             of the buffer
+	 */
+	static int readLength(ByteBuffer buffer) throws IOException {
+		long result = readVarLong(buffer);
+		if (result < 0 || result > buffer.remaining()) {
+			throw new IOException("Invalid length: " + result);
+		}
+		return (int) result;
+	}
+
+	static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Create the command described by the record of the given type, whose
+	 * worm index has been read, from the remainder of the given buffer.
+	 *
+	 * The commands are not shown on a screen.
+	 */
+	static Command readCommand(int type, Worm worm, ByteBuffer buffer,
+			IFacade facade) throws IOException {
+		try {
+			switch (type) {
+			case MOVE:
+				return new Move(facade, worm,
+						(int) unZigZag(readVarLong(buffer)), null);
+			case JUMP:
+				return new Jump(facade, worm, null);
+			case TURN:
+				return new Turn(facade, worm, buffer.getDouble(), null);
+			case RENAME:
+				byte[] name = new byte[readLength(buffer)];
+				buffer.get(name);
+				return new Rename(facade, worm, new String(name, UTF8), null);
+			case RESIZE:
+				return new Resize(facade, worm, buffer.getDouble(), null);
+			default:
+				throw new IOException("Unknown command type: " + type);
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated record");
+		}
+	}
+}
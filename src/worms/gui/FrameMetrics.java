@@ -0,0 +1,266 @@
+package worms.gui;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import worms.util.Histogram;
+
+/**
+ * Timings and counters of the game loop, per frame.
+ *
+ * The duration of each phase of a frame is recorded in a histogram, together
+ * with the deviation of the frame interval from the one implied by
+ * {@link GUIConstants#FRAMERATE} (jitter), the number of queued commands, the
+ * number of command lanes and the number of bytes allocated by the thread
+ * running the loop.
+ *
+ * Histograms cover a rolling window of {@value #WINDOW_SECONDS} seconds;
+ * readers see the most recent complete window (or the current one, before the
+ * first window completes). All methods are synchronized, so that the metrics
+ * can be read from other threads, such as the JMX connector.
+ */
+public class FrameMetrics implements FrameMetricsMBean {
+
+	public enum Phase {
+		/**
+		 * An iteration of the game loop: up to requesting a repaint (Swing
+		 * paints the frame afterwards), or including painting the frame with
+		 * active rendering
+		 */
+		LOOP,
+		/**
+		 * Advancing the simulation by the elapsed time
+		 */
+		EVOLVE,
+		/**
+		 * Advancing the command queue by one tick
+		 */
+		COMMANDS,
+		/**
+		 * Painting the game screen
+		 */
+		PAINT,
+		/**
+		 * The time a command waited between being enqueued and starting to
+		 * execute (recorded once per command rather than once per frame)
+		 */
+		WAIT
+	}
+
+	public static final String OBJECT_NAME = "worms:type=FrameMetrics";
+
+	private static final long WINDOW_SECONDS = 5;
+	private static final long WINDOW_NANOS = WINDOW_SECONDS * 1000000000L;
+
+	private static final long EXPECTED_FRAME_INTERVAL_NANOS = 1000000000L / GUIConstants.FRAMERATE;
+
+	private static class Window {
+		private final Histogram[] timings = new Histogram[Phase.values().length];
+		private final Histogram jitter = new Histogram();
+		private final Histogram allocatedBytes = new Histogram();
+		private final Histogram queuedCommands = new Histogram();
+		private final Histogram commandLanes = new Histogram();
+
+		private Window() {
+			for (int i = 0; i < timings.length; i++) {
+				timings[i] = new Histogram();
+			}
+		}
+
+		private void reset() {
+			for (Histogram histogram : timings) {
+				histogram.reset();
+			}
+			jitter.reset();
+			allocatedBytes.reset();
+			queuedCommands.reset();
+			commandLanes.reset();
+		}
+	}
+
+	private Window current = new Window();
+	private Window previous = new Window();
+	private long windowStart;
+
+	private long frameCount;
+	private long lastFrameStart;
+	private long lastAllocatedBytes = -1;
+	private int lastQueuedCommands;
+	private int lastCommandLanes;
+
+	/**
+	 * Record the duration of a phase of the current frame.
+	 */
+	public synchronized void record(Phase phase, long nanos) {
+		current.timings[phase.ordinal()].record(Math.max(0, nanos));
+	}
+
+	/**
+	 * Mark the start of a new frame. Must be called from the thread that runs
+	 * the game loop.
+	 *
+	 * @param commandLanes
+	 *            the number of worms with commands executing or waiting
+	 */
+	public synchronized void frameStarted(int queuedCommands, int commandLanes) {
+		long now = System.nanoTime();
+		if (frameCount > 0) {
+			long interval = now - lastFrameStart;
+			current.jitter.record(Math.abs(interval
+					- EXPECTED_FRAME_INTERVAL_NANOS));
+		} else {
+			windowStart = now;
+		}
+		lastFrameStart = now;
+		frameCount++;
+
+		long allocatedBytes = getAllocatedBytes();
+		if (allocatedBytes >= 0 && lastAllocatedBytes >= 0) {
+			current.allocatedBytes.record(Math.max(0, allocatedBytes
+					- lastAllocatedBytes));
+		}
+		lastAllocatedBytes = allocatedBytes;
+
+		lastQueuedCommands = queuedCommands;
+		current.queuedCommands.record(queuedCommands);
+		lastCommandLanes = commandLanes;
+		current.commandLanes.record(commandLanes);
+
+		if (now - windowStart >= WINDOW_NANOS) {
+			Window completed = current;
+			current = previous;
+			previous = completed;
+			current.reset();
+			windowStart = now;
+		}
+	}
+
+	private Window getReadableWindow() {
+		if (previous.jitter.getTotalCount() > 0) {
+			return previous;
+		}
+		return current;
+	}
+
+	public synchronized Histogram getTimings(Phase phase) {
+		Histogram result = new Histogram();
+		result.add(getReadableWindow().timings[phase.ordinal()]);
+		return result;
+	}
+
+	@Override
+	public synchronized long getFrameCount() {
+		return frameCount;
+	}
+
+	@Override
+	public synchronized int getQueuedCommands() {
+		return lastQueuedCommands;
+	}
+
+	@Override
+	public synchronized int getCommandLanes() {
+		return lastCommandLanes;
+	}
+
+	@Override
+	public synchronized double getMeanAllocatedBytesPerFrame() {
+		return getReadableWindow().allocatedBytes.getMean();
+	}
+
+	@Override
+	public synchronized long getFrameJitterP99Micros() {
+		return getReadableWindow().jitter.getValueAtPercentile(99) / 1000;
+	}
+
+	@Override
+	public synchronized long getPercentileMicros(String phase,
+			double percentile) {
+		return getReadableWindow().timings[Phase.valueOf(phase).ordinal()]
+				.getValueAtPercentile(percentile) / 1000;
+	}
+
+	@Override
+	public synchronized String[] getSummary() {
+		Window window = getReadableWindow();
+		Phase[] phases = Phase.values();
+		String[] result = new String[phases.length + 4];
+		for (Phase phase : phases) {
+			result[phase.ordinal()] = formatMicros(phase.name().toLowerCase(),
+					window.timings[phase.ordinal()]);
+		}
+		result[phases.length] = formatMicros("jitter", window.jitter);
+		result[phases.length + 1] = String.format(
+				"%-8s mean %8.0f B  p99 %8d B", "alloc",
+				window.allocatedBytes.getMean(),
+				window.allocatedBytes.getValueAtPercentile(99));
+		result[phases.length + 2] = String.format(
+				"%-8s now %4d  p99 %4d", "queued", lastQueuedCommands,
+				window.queuedCommands.getValueAtPercentile(99));
+		result[phases.length + 3] = String.format(
+				"%-8s now %4d  p99 %4d", "lanes", lastCommandLanes,
+				window.commandLanes.getValueAtPercentile(99));
+		return result;
+	}
+
+	private static String formatMicros(String name, Histogram histogram) {
+		return String.format("%-8s p50 %6d us  p99 %6d us  max %6d us", name,
+				histogram.getValueAtPercentile(50) / 1000,
+				histogram.getValueAtPercentile(99) / 1000,
+				histogram.getMax() / 1000);
+	}
+
+	/**
+	 * Make these metrics available through the platform MBean server, in
+	 * place of any previously registered ones.
+	 */
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Remove the metrics registered under {@link #OBJECT_NAME} from the
+	 * platform MBean server, if any.
+	 */
+	public void unregister() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far, or
+	 * -1 if not supported by the JVM.
+	 */
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported()
+					&& sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread()
+						.getId());
+			}
+		}
+		return -1;
+	}
+}
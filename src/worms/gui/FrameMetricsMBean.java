@@ -0,0 +1,37 @@
+package worms.gui;
+
+/**
+ * Management interface of {@link FrameMetrics}, for reading the metrics of
+ * the game loop through JMX (e.g., with jconsole).
+ *
+ * Durations are reported in microseconds, over the most recent complete
+ * window of frames.
+ */
+public interface FrameMetricsMBean {
+
+	long getFrameCount();
+
+	int getQueuedCommands();
+
+	/**
+	 * The number of worms with commands executing or waiting
+	 */
+	int getCommandLanes();
+
+	double getMeanAllocatedBytesPerFrame();
+
+	long getFrameJitterP99Micros();
+
+	/**
+	 * @param phase
+	 *            the name of a {@link FrameMetrics.Phase}
+	 * @param percentile
+	 *            (between 0 and 100)
+	 */
+	long getPercentileMicros(String phase, double percentile);
+
+	/**
+	 * One line per recorded quantity, with its mean and percentiles
+	 */
+	String[] getSummary();
+}
@@ -27,6 +27,24 @@ public final class GUIConstants {
 	 */
 	public static double WORLD_SCALE = 45;
 
+	/**
+	 * Minimal and maximal zoom factor of the camera, relative to
+	 * {@link #WORLD_SCALE}
+	 */
+	public static final double MIN_ZOOM = 0.01;
+	public static final double MAX_ZOOM = 10;
+
+	/**
+	 * Factor by which to zoom the camera in or out for a single step
+	 */
+	public static final double ZOOM_FACTOR = 1.25;
+
+	/**
+	 * Distance to pan the camera when pressing a 'pan' key a single time, in
+	 * pixels
+	 */
+	public static final double PAN_DISTANCE = 100;
+
 	/**
 	 * Minimal angle to turn when pressing the 'turn' key a single time
 	 */
@@ -3,4 +3,17 @@ package worms.gui;
 public class GUIOptions {
 	public boolean disableFullScreen = true;
 	public long randomSeed = 3;
+
+	/**
+	 * Render the game into a buffer strategy, rather than through Swing's
+	 * repaint mechanism. A dedicated thread only paces the frames; each frame
+	 * is still painted on the event dispatch thread.
+	 */
+	public boolean activeRendering = false;
+
+	/**
+	 * The file in which the commands of each game are recorded (see
+	 * {@link CommandJournal}); null if they are not recorded
+	 */
+	public String journalFile = null;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package worms.gui;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -15,11 +16,26 @@ import worms.model.Worm;
 
 public class GameState {
 
+	private final long randomSeed;
 	private final Random random;
 	private final IFacade facade;
 	private final Collection<Worm> worms = new ArrayList<Worm>();
 	private final CommandProcessor commandProcessor = new CommandProcessor();
 
+	// null if not measured
+	private FrameMetrics metrics;
+
+	// null if snapshots are not published
+	private volatile WorldSnapshot snapshot;
+
+	// null if commands are not recorded
+	private volatile CommandJournal journal;
+
+	/**
+	 * The number of ticks (calls to evolve) so far
+	 */
+	private volatile long nbTicks;
+
 	private Iterator<Worm> selection;
 	private Worm selectedWorm;
 
@@ -27,6 +43,7 @@ public class GameState {
 	private final int height;
 
 	public GameState(IFacade facade, long randomSeed, int width, int height) {
+		this.randomSeed = randomSeed;
 		this.random = new Random(randomSeed);
 		this.facade = facade;
 		this.width = width;
@@ -51,11 +68,15 @@ public class GameState {
 					* (worldHeight - 2 * radius);
 			double direction = random.nextDouble() * 2 * Math.PI;
 			Worm worm = facade.createWorm(x, y, direction, radius, name);
-			if (worm != null) {
-				worms.add(worm);
-			} else {
-				throw new NullPointerException("Created worm must not be null");
-			}
+			addWorm(worm);
+		}
+	}
+
+	public void addWorm(Worm worm) {
+		if (worm != null) {
+			worms.add(worm);
+		} else {
+			throw new NullPointerException("Created worm must not be null");
 		}
 	}
 
@@ -83,20 +104,161 @@ public class GameState {
 		selectedWorm = worm;
 	}
 
+	/**
+	 * Select the worm with the given index, in the order in which the worms
+	 * were added, so that the worm after it is selected next.
+	 */
+	void selectWormAt(int index) {
+		if (index < 0 || index >= worms.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+		selection = worms.iterator();
+		for (int i = 0; i <= index; i++) {
+			selectedWorm = selection.next();
+		}
+	}
+
 	public IFacade getFacade() {
 		return facade;
 	}
 
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public long getNbTicks() {
+		return nbTicks;
+	}
+
+	void setNbTicks(long nbTicks) {
+		this.nbTicks = nbTicks;
+	}
+
 	public Collection<Worm> getWorms() {
 		return Collections.unmodifiableCollection(worms);
 	}
 
 	public void evolve(double timeDelta) {
-		commandProcessor.advanceCommandQueue(timeDelta);
+		if (metrics == null) {
+			commandProcessor.advanceCommandQueue(timeDelta);
+		} else {
+			long start = System.nanoTime();
+			commandProcessor.advanceCommandQueue(timeDelta);
+			metrics.record(FrameMetrics.Phase.COMMANDS, System.nanoTime()
+					- start);
+		}
+		WorldSnapshot previous = snapshot;
+		if (previous != null) {
+			snapshot = previous.next(facade, worms, timeDelta);
+		}
+		nbTicks++;
+	}
+
+	/**
+	 * Enqueue the given command. May be called on any thread.
+	 *
+	 * @return whether the command was enqueued (see
+	 *         {@link CommandProcessor#enqueueCommand(Command)})
+	 */
+	public boolean enqueueCommand(Command cmd) {
+		CommandJournal journal = this.journal;
+		if (journal == null) {
+			return commandProcessor.enqueueCommand(cmd);
+		}
+		// the journal must have the commands in the order of the queue
+		synchronized (journal) {
+			boolean result = commandProcessor.enqueueCommand(cmd);
+			if (result) {
+				journal.record(nbTicks, cmd);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Set the journal in which all enqueued commands are recorded; null to
+	 * stop recording. Recording serializes the threads that enqueue
+	 * commands.
+	 *
+	 * The previous journal, if any, is closed.
+	 */
+	public void setJournal(CommandJournal journal) {
+		CommandJournal previous = this.journal;
+		this.journal = journal;
+		if (previous != null && previous != journal) {
+			try {
+				previous.close();
+			} catch (IOException e) {
+				// the commands recorded so far may be lost
+				e.printStackTrace();
+			}
+		}
+	}
+
+	public CommandProcessor getCommandProcessor() {
+		return commandProcessor;
+	}
+
+	public boolean isIdle() {
+		return commandProcessor.isIdle();
+	}
+
+	public int getNbQueuedCommands() {
+		return commandProcessor.getQueueLength();
+	}
+
+	/**
+	 * The number of worms with commands executing or waiting
+	 */
+	public int getNbCommandLanes() {
+		return commandProcessor.getNbLanes();
+	}
+
+	/**
+	 * Set the metrics in which the duration of each tick is recorded; null to
+	 * stop recording.
+	 */
+	public void setMetrics(FrameMetrics metrics) {
+		this.metrics = metrics;
+		commandProcessor.setMetrics(metrics);
+	}
+
+	/**
+	 * Start or stop publishing a snapshot of all worms after every tick.
+	 * Starting takes a snapshot of the current state right away.
+	 *
+	 * Must be called on the thread that advances the game.
+	 */
+	public void setPublishingSnapshots(boolean publishing) {
+		if (!publishing) {
+			snapshot = null;
+		} else if (snapshot == null) {
+			snapshot = WorldSnapshot.first(facade, worms);
+		}
+	}
+
+	public boolean isPublishingSnapshots() {
+		return snapshot != null;
 	}
 
-	public void enqueueCommand(Command cmd) {
-		commandProcessor.enqueueCommand(cmd);
+	/**
+	 * The snapshot of all worms after the last tick; null if snapshots are
+	 * not published.
+	 *
+	 * Unlike the other methods of a game state, this method may be called on
+	 * any thread: the snapshot is immutable, and a new one is published
+	 * (rather than the old one being modified) after every tick.
+	 */
+	public WorldSnapshot getSnapshot() {
+		return snapshot;
 	}
 
 }
@@ -0,0 +1,541 @@
+package worms.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.CommandProcessor;
+import worms.model.IFacade;
+import worms.model.ModelException;
+import worms.model.Worm;
+
+/**
+ * Saves and loads the complete state of a game in a binary file: its worms
+ * (location, direction, radius, name and action points), the selected worm
+ * and the commands that have yet to change their worm.
+ *
+ * The file starts with a header (magic number, format version, flags, random
+ * seed, width, height, number of ticks, number of worms, index of the
+ * selected worm and number of commands), followed by blocks of at most
+ * {@value #BLOCK_SIZE} bytes of records: a record per worm, then a record
+ * per command (type, worm index and arguments, as in a
+ * {@link CommandJournal}). Each block starts with its length and its stored
+ * length; if the file is compressed, blocks are compressed separately with
+ * Deflate. A block of length 0 ends the file. Integers, doubles and strings
+ * are encoded as in a command journal.
+ *
+ * Files are written and read through memory-mapped buffers; uncompressed
+ * blocks are read in place.
+ */
+public class GameStateFile {
+
+	static final int MAGIC = 0x57534E50; // "WSNP"
+	static final int VERSION = 1;
+
+	private static final int FLAG_COMPRESSED = 1;
+
+	/**
+	 * Maximal length of the records in a block (unless a single record is
+	 * longer)
+	 */
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	/**
+	 * Maximal length of a worm record, not counting its name (in bytes)
+	 */
+	private static final int MAX_WORM_RECORD_LENGTH = 4 * 8 + 5 + 5;
+
+	private static final int REGION_SIZE = 1 << 20;
+
+	private GameStateFile() {
+	}
+
+	/**
+	 * Save the given game in the given file, replacing its contents.
+	 *
+	 * The game is written to a temporary file in the same directory first,
+	 * which only replaces the given file once it is complete, so that a
+	 * failed save leaves the previous contents of the file intact.
+	 *
+	 * Only the commands that can be recorded in a {@link CommandJournal} are
+	 * saved. Must be called on the thread that advances the game.
+	 *
+	 * @param compressed
+	 *            whether to compress the blocks of records
+	 */
+	public static void save(GameState state, File file, boolean compressed)
+			throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile("save", ".tmp", directory);
+		boolean saved = false;
+		try {
+			write(state, temp, compressed);
+			replace(temp, file);
+			saved = true;
+		} finally {
+			if (!saved) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Rename the given source file to the given target file, replacing the
+	 * target.
+	 */
+	private static void replace(File source, File target) throws IOException {
+		if (source.renameTo(target)) {
+			return;
+		}
+		// some platforms do not rename over an existing file
+		if (target.delete() && source.renameTo(target)) {
+			return;
+		}
+		throw new IOException("Could not replace " + target);
+	}
+
+	private static void write(GameState state, File file, boolean compressed)
+			throws IOException {
+		IFacade facade = state.getFacade();
+		List<Worm> worms = new ArrayList<Worm>(state.getWorms());
+		List<Command> commands = new ArrayList<Command>();
+		for (Command cmd : state.getCommandProcessor().getPendingCommands()) {
+			if (CommandJournal.getType(cmd) != CommandJournal.END) {
+				commands.add(cmd);
+			}
+		}
+		int[] wormIndices = getWormIndices(worms, commands);
+
+		MappedFileWriter writer = new MappedFileWriter(file, REGION_SIZE);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(64);
+			header.putInt(MAGIC);
+			CommandJournal.writeVarLong(header, VERSION);
+			header.put((byte) (compressed ? FLAG_COMPRESSED : 0));
+			header.putLong(state.getRandomSeed());
+			CommandJournal.writeVarLong(header, state.getWidth());
+			CommandJournal.writeVarLong(header, state.getHeight());
+			CommandJournal.writeVarLong(header, state.getNbTicks());
+			CommandJournal.writeVarLong(header, worms.size());
+			CommandJournal.writeVarLong(header,
+					CommandJournal.zigZag(worms.indexOf(state
+							.getSelectedWorm())));
+			CommandJournal.writeVarLong(header, commands.size());
+			header.flip();
+			writer.write(header);
+
+			BlockWriter blocks = new BlockWriter(writer, compressed);
+			try {
+				writeRecords(facade, worms, commands, wormIndices, blocks);
+			} finally {
+				blocks.end();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void writeRecords(IFacade facade, List<Worm> worms,
+			List<Command> commands, int[] wormIndices, BlockWriter blocks)
+			throws IOException {
+		for (Worm worm : worms) {
+			byte[] name = facade.getName(worm).getBytes(
+					CommandJournal.UTF8);
+			ByteBuffer block = blocks.reserve(MAX_WORM_RECORD_LENGTH
+					+ name.length);
+			block.putDouble(facade.getX(worm));
+			block.putDouble(facade.getY(worm));
+			block.putDouble(facade.getOrientation(worm));
+			block.putDouble(facade.getRadius(worm));
+			CommandJournal.writeVarLong(block,
+					facade.getActionPoints(worm));
+			CommandJournal.writeVarLong(block, name.length);
+			block.put(name);
+		}
+		for (int i = 0; i < commands.size(); i++) {
+			Command cmd = commands.get(i);
+			ByteBuffer record = ByteBuffer.allocate(32);
+			int type = CommandJournal.getType(cmd);
+			record.put((byte) type);
+			CommandJournal.writeVarLong(record, wormIndices[i]);
+			record = CommandJournal.writeArguments(record, type, cmd);
+			record.flip();
+			blocks.reserve(record.remaining()).put(record);
+		}
+		blocks.finish();
+	}
+
+	/**
+	 * The index of the worm of each of the given commands in the given list
+	 * of worms
+	 */
+	private static int[] getWormIndices(List<Worm> worms,
+			List<Command> commands) throws IOException {
+		int[] result = new int[commands.size()];
+		if (commands.isEmpty()) {
+			return result;
+		}
+		Map<Worm, Integer> indices = new IdentityHashMap<Worm, Integer>();
+		for (int i = 0; i < worms.size(); i++) {
+			indices.put(worms.get(i), i);
+		}
+		for (int i = 0; i < commands.size(); i++) {
+			Integer index = indices.get(commands.get(i).getWorm());
+			if (index == null) {
+				throw new IOException("Worm of command is not part of the game");
+			}
+			result[i] = index;
+		}
+		return result;
+	}
+
+	/**
+	 * Load the game saved in the given file. Its commands are not shown on a
+	 * screen.
+	 */
+	public static GameState load(File file, IFacade facade) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		ByteBuffer buffer;
+		try {
+			FileChannel channel = input.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File too large: " + channel.size());
+			}
+			// the mapping remains valid after the file is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			input.close();
+		}
+		try {
+			return load(buffer, facade);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated file");
+		} catch (ModelException e) {
+			throw new IOException("Invalid worm: " + e.getMessage());
+		}
+	}
+
+	private static GameState load(ByteBuffer buffer, IFacade facade)
+			throws IOException {
+		if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+			throw new IOException("Not a saved game");
+		}
+		long version = CommandJournal.readVarLong(buffer);
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version);
+		}
+		boolean compressed = (buffer.get() & FLAG_COMPRESSED) != 0;
+		long randomSeed = buffer.getLong();
+		int width = (int) CommandJournal.readVarLong(buffer);
+		int height = (int) CommandJournal.readVarLong(buffer);
+		long nbTicks = CommandJournal.readVarLong(buffer);
+		long nbWorms = CommandJournal.readVarLong(buffer);
+		long selected = CommandJournal.unZigZag(CommandJournal
+				.readVarLong(buffer));
+		long nbCommands = CommandJournal.readVarLong(buffer);
+		if (nbWorms > Integer.MAX_VALUE || selected >= nbWorms) {
+			throw new IOException("Invalid header");
+		}
+
+		GameState state = new GameState(facade, randomSeed, width, height);
+		state.setNbTicks(nbTicks);
+		BlockReader blocks = new BlockReader(buffer, compressed);
+		try {
+			readRecords(facade, state, nbWorms, selected, nbCommands, blocks);
+			blocks.finish();
+		} finally {
+			blocks.end();
+		}
+		return state;
+	}
+
+	private static void readRecords(IFacade facade, GameState state,
+			long nbWorms, long selected, long nbCommands, BlockReader blocks)
+			throws IOException {
+		// the number of worms is not trusted until their records are read
+		List<Worm> worms = new ArrayList<Worm>((int) Math.min(nbWorms,
+				BLOCK_SIZE));
+		NameCache names = new NameCache();
+		for (long i = 0; i < nbWorms; i++) {
+			ByteBuffer block = blocks.next();
+			double x = block.getDouble();
+			double y = block.getDouble();
+			double direction = block.getDouble();
+			double radius = block.getDouble();
+			// saved directions are representative angles; others could take
+			// the model arbitrarily long to convert
+			if (!(direction >= 0 && direction < 2 * Math.PI)) {
+				throw new IOException("Invalid direction: " + direction);
+			}
+			int actionPoints = (int) CommandJournal.readVarLong(block);
+			int nameLength = CommandJournal.readLength(block);
+			Worm worm = facade.restoreWorm(x, y, direction, radius,
+					names.get(block, nameLength), actionPoints);
+			state.addWorm(worm);
+			worms.add(worm);
+		}
+		if (selected >= 0) {
+			state.selectWormAt((int) selected);
+		}
+
+		CommandProcessor processor = state.getCommandProcessor();
+		for (long i = 0; i < nbCommands; i++) {
+			ByteBuffer block = blocks.next();
+			int type = block.get();
+			long index = CommandJournal.readVarLong(block);
+			if (index < 0 || index >= worms.size()) {
+				throw new IOException("Invalid worm index: " + index);
+			}
+			processor.addWaitingCommand(CommandJournal.readCommand(type,
+					worms.get((int) index), block, facade));
+		}
+	}
+
+	/**
+	 * Recently decoded names, so that worms with the same name share a
+	 * single string rather than each decoding its own.
+	 */
+	private static class NameCache {
+		private static final int SIZE = 256;
+
+		private final byte[][] encoded = new byte[SIZE][];
+		private final String[] decoded = new String[SIZE];
+		private byte[] bytes = new byte[64];
+
+		/**
+		 * Returns the name encoded by the given number of bytes at the
+		 * position of the given buffer, and moves past them. The given
+		 * length is at most the number of remaining bytes of the buffer.
+		 */
+		private String get(ByteBuffer buffer, int length) {
+			if (length > bytes.length) {
+				bytes = new byte[length];
+			}
+			buffer.get(bytes, 0, length);
+			int hash = length;
+			for (int i = 0; i < length; i++) {
+				hash = 31 * hash + bytes[i];
+			}
+			int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+			byte[] candidate = encoded[slot];
+			if (candidate != null && candidate.length == length
+					&& startsWith(bytes, candidate)) {
+				return decoded[slot];
+			}
+			encoded[slot] = Arrays.copyOf(bytes, length);
+			decoded[slot] = new String(bytes, 0, length, CommandJournal.UTF8);
+			return decoded[slot];
+		}
+
+		private static boolean startsWith(byte[] bytes, byte[] prefix) {
+			for (int i = 0; i < prefix.length; i++) {
+				if (bytes[i] != prefix[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Collects records in blocks, and writes every full block.
+	 */
+	private static class BlockWriter {
+		private final MappedFileWriter writer;
+
+		// null if not compressed
+		private final Deflater deflater;
+		private byte[] compressed;
+
+		private ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+		private final ByteBuffer blockHeader = ByteBuffer.allocate(8);
+
+		private BlockWriter(MappedFileWriter writer, boolean compressed) {
+			this.writer = writer;
+			this.deflater = compressed ? new Deflater() : null;
+		}
+
+		/**
+		 * Returns the buffer to which a record of at most the given length
+		 * is to be written, writing the current block first if the record
+		 * does not fit in it.
+		 */
+		private ByteBuffer reserve(int length) throws IOException {
+			if (block.remaining() < length) {
+				writeBlock();
+				if (block.capacity() < length) {
+					block = ByteBuffer.allocate(length);
+				}
+			}
+			return block;
+		}
+
+		private void writeBlock() throws IOException {
+			block.flip();
+			int length = block.remaining();
+			if (length == 0) {
+				block.clear();
+				return;
+			}
+			ByteBuffer stored = block;
+			if (deflater != null) {
+				int bound = length + length / 1000 + 64;
+				if (compressed == null || compressed.length < bound) {
+					compressed = new byte[bound];
+				}
+				deflater.reset();
+				deflater.setInput(block.array(), 0, length);
+				deflater.finish();
+				int storedLength = 0;
+				while (!deflater.finished()) {
+					if (storedLength == compressed.length) {
+						compressed = Arrays.copyOf(compressed,
+								2 * compressed.length);
+					}
+					storedLength += deflater.deflate(compressed, storedLength,
+							compressed.length - storedLength);
+				}
+				stored = ByteBuffer.wrap(compressed, 0, storedLength);
+			}
+			blockHeader.clear();
+			blockHeader.putInt(length);
+			blockHeader.putInt(stored.remaining());
+			blockHeader.flip();
+			writer.write(blockHeader);
+			writer.write(stored);
+			block.clear();
+		}
+
+		private void finish() throws IOException {
+			writeBlock();
+			blockHeader.clear();
+			blockHeader.putInt(0);
+			blockHeader.putInt(0);
+			blockHeader.flip();
+			writer.write(blockHeader);
+		}
+
+		/**
+		 * Release the native memory of the compressor.
+		 */
+		private void end() {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Reads the blocks of records in turn.
+	 */
+	private static class BlockReader {
+		private final ByteBuffer buffer;
+
+		// null if not compressed
+		private final Inflater inflater;
+		private byte[] input;
+		private byte[] decompressed;
+
+		private ByteBuffer block = ByteBuffer.allocate(0);
+
+		private BlockReader(ByteBuffer buffer, boolean compressed) {
+			this.buffer = buffer;
+			this.inflater = compressed ? new Inflater() : null;
+		}
+
+		/**
+		 * Returns the buffer from which the next record is to be read,
+		 * reading the next block if the current one is exhausted.
+		 */
+		private ByteBuffer next() throws IOException {
+			if (!block.hasRemaining()) {
+				readBlock();
+			}
+			return block;
+		}
+
+		/**
+		 * Check that all records have been read and that the block that
+		 * ends the file follows them, so that a file that lost its last
+		 * bytes is not taken for a complete one.
+		 */
+		private void finish() throws IOException {
+			if (block.hasRemaining()) {
+				throw new IOException("Unexpected records");
+			}
+			if (buffer.getInt() != 0 || buffer.getInt() != 0) {
+				throw new IOException("Missing end of file");
+			}
+		}
+
+		/**
+		 * Release the native memory of the decompressor.
+		 */
+		private void end() {
+			if (inflater != null) {
+				inflater.end();
+			}
+		}
+
+		private void readBlock() throws IOException {
+			int length = buffer.getInt();
+			int storedLength = buffer.getInt();
+			if (length <= 0 || storedLength < 0
+					|| storedLength > buffer.remaining()) {
+				throw new IOException("Missing or invalid block");
+			}
+			// deflate compresses at most about 1032:1
+			if (inflater == null ? length != storedLength
+					: length > Math.max(BLOCK_SIZE, 1032L * storedLength)) {
+				throw new IOException("Invalid block length: " + length);
+			}
+			ByteBuffer stored = buffer.slice();
+			stored.limit(storedLength);
+			buffer.position(buffer.position() + storedLength);
+			if (inflater == null) {
+				block = stored;
+				return;
+			}
+			if (decompressed == null || decompressed.length < length) {
+				decompressed = new byte[Math.max(length, BLOCK_SIZE)];
+			}
+			if (input == null || input.length < storedLength) {
+				input = new byte[Math.max(storedLength, BLOCK_SIZE)];
+			}
+			stored.get(input, 0, storedLength);
+			inflater.reset();
+			inflater.setInput(input, 0, storedLength);
+			try {
+				int n = 0;
+				while (n < length && !inflater.finished()) {
+					int inflated = inflater.inflate(decompressed, n, length - n);
+					if (inflated == 0
+							&& (inflater.needsInput() || inflater
+									.needsDictionary())) {
+						break;
+					}
+					n += inflated;
+				}
+				if (n != length) {
+					throw new IOException("Corrupt block");
+				}
+			} catch (DataFormatException e) {
+				throw new IOException("Corrupt block: " + e.getMessage());
+			}
+			block = ByteBuffer.wrap(decompressed, 0, length);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package worms.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Rebuilds games from their {@link CommandJournal}, headlessly and as fast as
+ * the CPU allows.
+ *
+ * Every command is enqueued before the same tick as in the recorded game.
+ * Ticks in which no command executes do not change the game, so they are
+ * skipped rather than run; the replayed game therefore ends in the same
+ * state as the recorded one, however long the recorded game was idle.
+ *
+ * Usage: <code>JournalReplayer journal [repetitions]</code>
+ */
+public class JournalReplayer {
+
+	private final IFacade facade;
+
+	private long nbRecords;
+	private long nbTicks;
+
+	public JournalReplayer(IFacade facade) {
+		this.facade = facade;
+	}
+
+	/**
+	 * The number of commands of the last replayed game
+	 */
+	public long getNbRecords() {
+		return nbRecords;
+	}
+
+	/**
+	 * The number of ticks that were run to replay the last game
+	 */
+	public long getNbTicks() {
+		return nbTicks;
+	}
+
+	/**
+	 * Replay the game in the given journal, until all its commands have
+	 * finished or the given number of ticks has been run after the last
+	 * command was enqueued.
+	 *
+	 * @return the state of the replayed game
+	 */
+	public GameState replay(File journal, long maxTicks) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(journal, "r");
+		ByteBuffer buffer;
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Journal too large: " + channel.size());
+			}
+			// the mapping remains valid after the file is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			file.close();
+		}
+		return replay(buffer, maxTicks);
+	}
+
+	GameState replay(ByteBuffer buffer, long maxTicks) throws IOException {
+		if (buffer.remaining() < 4 || buffer.getInt() != CommandJournal.MAGIC) {
+			throw new IOException("Not a command journal");
+		}
+		long version = CommandJournal.readVarLong(buffer);
+		if (version != CommandJournal.VERSION) {
+			throw new IOException("Unsupported journal version: " + version);
+		}
+		if (buffer.remaining() < 8) {
+			throw new IOException("Truncated header");
+		}
+		long randomSeed = buffer.getLong();
+		int width = (int) CommandJournal.readVarLong(buffer);
+		int height = (int) CommandJournal.readVarLong(buffer);
+
+		GameState state = new GameState(facade, randomSeed, width, height);
+		state.startGame();
+		List<Worm> worms = new ArrayList<Worm>(state.getWorms());
+		SimulationEngine engine = new SimulationEngine(state);
+
+		nbRecords = 0;
+		long tick = 0;
+		long replayedTick = 0;
+		while (buffer.hasRemaining()) {
+			int type = buffer.get();
+			if (type == CommandJournal.END) {
+				break;
+			}
+			tick += CommandJournal.readVarLong(buffer);
+			long index = CommandJournal.readVarLong(buffer);
+			if (index < 0 || index >= worms.size()) {
+				throw new IOException("Invalid worm index: " + index);
+			}
+			Worm worm = worms.get((int) index);
+
+			while (replayedTick < tick) {
+				if (state.isIdle()) {
+					replayedTick = tick;
+				} else {
+					engine.tick();
+					replayedTick++;
+				}
+			}
+			state.enqueueCommand(CommandJournal.readCommand(type, worm,
+					buffer, facade));
+			nbRecords++;
+		}
+		engine.runUntilIdle(maxTicks);
+		nbTicks = engine.getTickCount();
+		return state;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: JournalReplayer journal [repetitions]");
+			System.exit(1);
+		}
+		File journal = new File(args[0]);
+		int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+		JournalReplayer replayer = new JournalReplayer(new Facade());
+		for (int i = 0; i < repetitions; i++) {
+			long start = System.nanoTime();
+			replayer.replay(journal, Long.MAX_VALUE);
+			long duration = System.nanoTime() - start;
+			System.out.println(String.format(
+					"%d commands, %d ticks in %.3f ms (%.0f commands/s)",
+					replayer.getNbRecords(), replayer.getNbTicks(),
+					duration / 1e6, replayer.getNbRecords() * 1e9 / duration));
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package worms.gui;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a file sequentially through memory-mapped regions of a fixed size,
+ * so that writing needs no system call, except to map the next region.
+ *
+ * The rest of the last region is filled with zeros until the writer is
+ * closed, which truncates the file after the last byte written. Since the
+ * given file is emptied as soon as the writer is created, callers that must
+ * not lose its previous contents write to a temporary file instead (see
+ * {@link GameStateFile#save(GameState, File, boolean)}).
+ */
+class MappedFileWriter implements Closeable {
+
+	private final int regionSize;
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+
+	private MappedByteBuffer region;
+	private long regionStart;
+
+	/**
+	 * Create a writer of the given file, replacing its contents.
+	 *
+	 * @param regionSize
+	 *            the size of the regions that are mapped at once (in bytes)
+	 */
+	MappedFileWriter(File file, int regionSize) throws IOException {
+		this.regionSize = regionSize;
+		this.file = new RandomAccessFile(file, "rw");
+		this.file.setLength(0);
+		this.channel = this.file.getChannel();
+		this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				regionSize);
+	}
+
+	/**
+	 * The number of bytes written so far
+	 */
+	long getPosition() {
+		return regionStart + region.position();
+	}
+
+	/**
+	 * Write the remaining bytes of the given buffer, mapping the next region
+	 * whenever the current one is full.
+	 */
+	void write(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (!region.hasRemaining()) {
+				// the full region is dropped, so its bytes are written now
+				region.force();
+				regionStart += regionSize;
+				region = channel.map(FileChannel.MapMode.READ_WRITE,
+						regionStart, regionSize);
+			}
+			int length = Math.min(buffer.remaining(), region.remaining());
+			int limit = buffer.limit();
+			buffer.limit(buffer.position() + length);
+			region.put(buffer);
+			buffer.limit(limit);
+		}
+	}
+
+	boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	/**
+	 * Write all bytes to the storage device and truncate the file after the
+	 * last byte written.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		try {
+			region.force();
+			try {
+				channel.truncate(getPosition());
+			} catch (IOException e) {
+				// some platforms cannot truncate mapped files; the file then
+				// keeps the zeros after the last byte written
+			}
+		} finally {
+			file.close();
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package worms.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import worms.util.Histogram;
+
+/**
+ * Runs many independent games headlessly, in parallel on a fixed pool of
+ * threads.
+ *
+ * The games are divided into slices, and each slice is advanced by a single
+ * thread at a time; games never share mutable state, so no synchronization
+ * between threads is needed. The duration of every tick of every game is
+ * recorded in a histogram per game.
+ */
+public class MultiGameRunner {
+
+	/**
+	 * Number of slices per thread, so that threads that finish their slice
+	 * early can pick up another one
+	 */
+	private static final int SLICES_PER_THREAD = 4;
+
+	private final List<SimulationEngine> engines = new ArrayList<SimulationEngine>();
+	private final List<Histogram> tickLatencies = new ArrayList<Histogram>();
+
+	private final int nbThreads;
+	private final ExecutorService executor;
+
+	public MultiGameRunner(int nbThreads) {
+		if (nbThreads < 1) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.nbThreads = nbThreads;
+		this.executor = Executors.newFixedThreadPool(nbThreads);
+	}
+
+	public MultiGameRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public int getNbThreads() {
+		return nbThreads;
+	}
+
+	/**
+	 * Add a game that is advanced with the default timestep.
+	 *
+	 * @return the index of the new game
+	 */
+	public int addGame(GameState state) {
+		return addGame(new SimulationEngine(state));
+	}
+
+	/**
+	 * @return the index of the new game
+	 */
+	public int addGame(SimulationEngine engine) {
+		engines.add(engine);
+		tickLatencies.add(new Histogram());
+		return engines.size() - 1;
+	}
+
+	public int getNbGames() {
+		return engines.size();
+	}
+
+	public SimulationEngine getGame(int index) {
+		return engines.get(index);
+	}
+
+	/**
+	 * Durations (in nanoseconds) of the ticks of the game with the given
+	 * index
+	 */
+	public Histogram getTickLatencies(int index) {
+		return tickLatencies.get(index);
+	}
+
+	/**
+	 * Durations (in nanoseconds) of the ticks of all games
+	 */
+	public Histogram getTotalTickLatencies() {
+		Histogram result = new Histogram();
+		for (Histogram histogram : tickLatencies) {
+			result.add(histogram);
+		}
+		return result;
+	}
+
+	/**
+	 * Advance every game by the given number of ticks.
+	 */
+	public void run(final long nbTicks) throws InterruptedException {
+		runSlices(nbTicks, false);
+	}
+
+	/**
+	 * Advance every game until all its enqueued commands have finished, or
+	 * until it has run the given number of ticks.
+	 */
+	public void runUntilIdle(final long maxTicks) throws InterruptedException {
+		runSlices(maxTicks, true);
+	}
+
+	private void runSlices(final long maxTicks, final boolean untilIdle)
+			throws InterruptedException {
+		int nbSlices = Math.min(engines.size(), nbThreads * SLICES_PER_THREAD);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int slice = 0; slice < nbSlices; slice++) {
+			final int from = slice * engines.size() / nbSlices;
+			final int to = (slice + 1) * engines.size() / nbSlices;
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = from; i < to; i++) {
+						runGame(i, maxTicks, untilIdle);
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Game failed", e.getCause());
+			}
+		}
+	}
+
+	private void runGame(int index, long maxTicks, boolean untilIdle) {
+		SimulationEngine engine = engines.get(index);
+		Histogram latencies = tickLatencies.get(index);
+		for (long tick = 0; tick < maxTicks; tick++) {
+			if (untilIdle && engine.getGameState().isIdle()) {
+				return;
+			}
+			long start = System.nanoTime();
+			engine.tick();
+			latencies.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Stop the threads of this runner; no games can be run afterwards.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -10,13 +10,15 @@ import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 
 import javax.swing.JPanel;
 
 public abstract class Screen {
 
 	protected class InputMode implements KeyListener, MouseListener,
-			MouseMotionListener {
+			MouseMotionListener, MouseWheelListener {
 
 		public void paintOverlay(Graphics2D g) {
 		}
@@ -65,6 +67,10 @@ public abstract class Screen {
 		@Override
 		public void mouseMoved(MouseEvent e) {
 		}
+
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+		}
 	}
 
 	private final WormsGUI gui;
@@ -88,13 +94,7 @@ public abstract class Screen {
 			@Override
 			public void paint(Graphics g) {
 				super.paint(g);
-				Graphics2D graphics = (Graphics2D) g;
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-						RenderingHints.VALUE_ANTIALIAS_ON);
-
-				Screen.this.paintScreen(graphics);
-
-				getCurrentInputMode().paintOverlay(graphics);
+				paintContents((Graphics2D) g);
 			}
 		};
 		result.setBackground(Color.BLACK);
@@ -118,15 +118,29 @@ public abstract class Screen {
 			contents.removeKeyListener(currentInputMode);
 			contents.removeMouseListener(currentInputMode);
 			contents.removeMouseMotionListener(currentInputMode);
+			contents.removeMouseWheelListener(currentInputMode);
 		}
 		currentInputMode = newMode;
 		if (newMode != null) {
 			contents.addKeyListener(newMode);
 			contents.addMouseListener(newMode);
 			contents.addMouseMotionListener(newMode);
+			contents.addMouseWheelListener(newMode);
 		}
 	}
 
+	/**
+	 * Paint the screen, with the overlay of the current input mode on top.
+	 */
+	protected void paintContents(Graphics2D graphics) {
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+
+		paintScreen(graphics);
+
+		getCurrentInputMode().paintOverlay(graphics);
+	}
+
 	protected void paintScreen(Graphics2D g) {
 	}
 
@@ -137,6 +151,16 @@ public abstract class Screen {
 	
 	protected abstract void screenStarted();
 
+	public final void stopScreen() {
+		screenStopped();
+	}
+
+	/**
+	 * Called when the GUI leaves this screen, or exits.
+	 */
+	protected void screenStopped() {
+	}
+
 	public int getScreenHeight() {
 		return getPanel().getHeight();
 	}
@@ -149,20 +173,96 @@ public abstract class Screen {
 		getPanel().repaint();
 	}
 
+	/*
+	 * Camera: the world location shown at the center of the screen, and the
+	 * zoom factor relative to GUIConstants.WORLD_SCALE
+	 */
+	private double cameraX = 0;
+	private double cameraY = 0;
+	private double zoom = 1;
+
+	public double getCameraX() {
+		return cameraX;
+	}
+
+	public double getCameraY() {
+		return cameraY;
+	}
+
+	public double getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Show the given world location at the center of the screen, at the given
+	 * zoom factor (which is limited to the range allowed by GUIConstants).
+	 */
+	public void setCamera(double x, double y, double zoom) {
+		zoom = Math.max(GUIConstants.MIN_ZOOM,
+				Math.min(zoom, GUIConstants.MAX_ZOOM));
+		if (x != cameraX || y != cameraY || zoom != this.zoom) {
+			this.cameraX = x;
+			this.cameraY = y;
+			this.zoom = zoom;
+			cameraChanged();
+		}
+	}
+
+	/**
+	 * Move the camera by the given distance on the screen (in pixels).
+	 */
+	public void panCamera(double dx, double dy) {
+		setCamera(cameraX + getLogicalLength(dx), cameraY
+				- getLogicalLength(dy), zoom);
+	}
+
+	/**
+	 * Multiply the zoom factor of the camera by the given factor, keeping the
+	 * world location at the given screen location in place.
+	 */
+	public void zoomCamera(double factor, double screenX, double screenY) {
+		double x = getLogicalX(screenX);
+		double y = getLogicalY(screenY);
+		double newZoom = Math.max(GUIConstants.MIN_ZOOM,
+				Math.min(zoom * factor, GUIConstants.MAX_ZOOM));
+		double scale = zoom / newZoom;
+		setCamera(x - (x - cameraX) * scale, y - (y - cameraY) * scale,
+				newZoom);
+	}
+
+	/**
+	 * Called after the camera has changed
+	 */
+	protected void cameraChanged() {
+		repaint();
+	}
+
+	/**
+	 * Returns the length on the screen (in pixels) of the given length in the
+	 * world (in worm-meter).
+	 */
+	public double getScreenLength(double length) {
+		return GUIUtils.meterToPixels(length) * zoom;
+	}
+
+	public double getLogicalLength(double screenLength) {
+		return GUIUtils.pixelToMeter(screenLength / zoom);
+	}
+
 	public double getScreenX(double x) {
-		return getScreenWidth() / 2.0 + GUIUtils.meterToPixels(x);
+		return getScreenWidth() / 2.0 + getScreenLength(x - cameraX);
 	}
 
 	public double getLogicalX(double screenX) {
-		return GUIUtils.pixelToMeter(screenX - getScreenWidth() / 2.0);
+		return cameraX + getLogicalLength(screenX - getScreenWidth() / 2.0);
 	}
 
 	public double getScreenY(double y) {
-		return getScreenHeight() / 2.0 - GUIUtils.meterToPixels(y);
+		return getScreenHeight() / 2.0 - getScreenLength(y - cameraY);
 	}
 
 	public double getLogicalY(double screenY) {
-		return GUIUtils.pixelToMeter(getScreenHeight() / 2.0 - screenY);
+		return cameraY + getLogicalLength(getScreenHeight() / 2.0 - screenY);
 	}
 
 }
@@ -0,0 +1,126 @@
+package worms.gui;
+
+/**
+ * Advances a game state with a fixed timestep, independent of the wall clock
+ * and of any user interface.
+ *
+ * The GUI feeds the real elapsed time to {@link #advance(double)}, which runs
+ * as many whole ticks as fit in it. Headless simulations call
+ * {@link #tick()} or {@link #run(long)} directly, which run as fast as the
+ * CPU allows.
+ */
+public class SimulationEngine {
+
+	/**
+	 * Default duration of a single tick, in worm-seconds: the time that
+	 * elapses in one frame of the GUI
+	 */
+	public static final double DEFAULT_TIMESTEP = GUIConstants.TIME_SCALE
+			/ GUIConstants.FRAMERATE;
+
+	/**
+	 * Maximal number of ticks run by a single call to advance, so that a long
+	 * pause (e.g., while debugging) does not make the simulation try to catch
+	 * up all at once
+	 */
+	private static final int MAX_TICKS_PER_ADVANCE = 10;
+
+	private final GameState gameState;
+	private final double timestep;
+
+	private double accumulatedTime;
+	private long tickCount;
+
+	public SimulationEngine(GameState gameState) {
+		this(gameState, DEFAULT_TIMESTEP);
+	}
+
+	/**
+	 * @param timestep
+	 *            (in worm-seconds)
+	 */
+	public SimulationEngine(GameState gameState, double timestep) {
+		if (timestep <= 0) {
+			throw new IllegalArgumentException("Timestep must be positive");
+		}
+		this.gameState = gameState;
+		this.timestep = timestep;
+	}
+
+	public GameState getGameState() {
+		return gameState;
+	}
+
+	public double getTimestep() {
+		return timestep;
+	}
+
+	/**
+	 * Number of ticks run so far
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Simulated time so far (in worm-seconds)
+	 */
+	public double getSimulatedTime() {
+		return tickCount * timestep;
+	}
+
+	/**
+	 * Advance the game state by a single timestep.
+	 */
+	public void tick() {
+		gameState.evolve(timestep);
+		tickCount++;
+	}
+
+	/**
+	 * Advance the game state by the given number of timesteps.
+	 */
+	public void run(long nbTicks) {
+		for (long i = 0; i < nbTicks; i++) {
+			tick();
+		}
+	}
+
+	/**
+	 * Advance the game state until all enqueued commands have finished, or
+	 * until the given number of ticks has been run.
+	 *
+	 * @return the number of ticks that were run
+	 */
+	public long runUntilIdle(long maxTicks) {
+		long ticks = 0;
+		while (ticks < maxTicks && !gameState.isIdle()) {
+			tick();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Account for the given amount of elapsed time and run all whole ticks
+	 * that fit in the time accumulated so far; the remainder is carried over
+	 * to the next call.
+	 *
+	 * @param timeDelta
+	 *            (in worm-seconds)
+	 * @return the number of ticks that were run
+	 */
+	public int advance(double timeDelta) {
+		accumulatedTime += timeDelta;
+		int ticks = 0;
+		while (accumulatedTime >= timestep && ticks < MAX_TICKS_PER_ADVANCE) {
+			tick();
+			accumulatedTime -= timestep;
+			ticks++;
+		}
+		if (ticks == MAX_TICKS_PER_ADVANCE) {
+			accumulatedTime = Math.min(accumulatedTime, timestep);
+		}
+		return ticks;
+	}
+}
@@ -0,0 +1,160 @@
+package worms.gui;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * The state of all worms of a game at the end of a tick. Snapshots are
+ * immutable, so they can be read on any thread while the game advances.
+ *
+ * Successive snapshots share structure: the states are stored in chunks of
+ * {@value #CHUNK_SIZE}, and a chunk in which no worm changed during a tick is
+ * reused as is by the next snapshot, as is the state of every worm that did
+ * not change. Publishing a tick in which few worms changed therefore only
+ * allocates the states and chunks of those worms.
+ */
+public final class WorldSnapshot {
+
+	private static final int CHUNK_BITS = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final WorldSnapshot EMPTY = new WorldSnapshot(0, 0,
+			new WormState[0][], 0);
+
+	private final long tick;
+	private final double time;
+	private final WormState[][] chunks;
+	private final int size;
+
+	private WorldSnapshot(long tick, double time, WormState[][] chunks,
+			int size) {
+		this.tick = tick;
+		this.time = time;
+		this.chunks = chunks;
+		this.size = size;
+	}
+
+	/**
+	 * The number of ticks since the first snapshot of the game was taken
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * The total duration of those ticks (in seconds)
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * The number of worms
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The state of the worm with the given index, in the order in which the
+	 * worms were added to the game.
+	 */
+	public WormState get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+					+ size);
+		}
+		return chunks[index >> CHUNK_BITS][index & CHUNK_MASK];
+	}
+
+	/**
+	 * Whether the state of the worm with the given index is stored in the
+	 * same chunk in this snapshot as in the given one
+	 */
+	boolean sharesChunk(WorldSnapshot other, int index) {
+		int chunkIndex = index >> CHUNK_BITS;
+		return chunkIndex < chunks.length && chunkIndex < other.chunks.length
+				&& chunks[chunkIndex] == other.chunks[chunkIndex];
+	}
+
+	/**
+	 * An unmodifiable view on the states of all worms
+	 */
+	public List<WormState> getWormStates() {
+		return new AbstractList<WormState>() {
+			@Override
+			public WormState get(int index) {
+				return WorldSnapshot.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Take the first snapshot of the given worms.
+	 *
+	 * Must be called on the thread that advances the game.
+	 */
+	static WorldSnapshot first(IFacade facade, Collection<Worm> worms) {
+		return EMPTY.take(facade, worms, 0, 0);
+	}
+
+	/**
+	 * Take the snapshot of the given worms after a tick of the given
+	 * duration, sharing the states and chunks that did not change since this
+	 * snapshot.
+	 *
+	 * Must be called on the thread that advances the game.
+	 */
+	WorldSnapshot next(IFacade facade, Collection<Worm> worms,
+			double timeDelta) {
+		return take(facade, worms, tick + 1, time + timeDelta);
+	}
+
+	private WorldSnapshot take(IFacade facade, Collection<Worm> worms,
+			long newTick, double newTime) {
+		int newSize = worms.size();
+		WormState[][] newChunks = new WormState[(newSize + CHUNK_MASK) >> CHUNK_BITS][];
+		WormState[] chunk = new WormState[CHUNK_SIZE];
+		boolean chunkChanged = false;
+		int index = 0;
+		for (Worm worm : worms) {
+			int offset = index & CHUNK_MASK;
+			WormState previous = (index < size) ? get(index) : null;
+			if (previous != null && previous.isCurrent(facade, worm)) {
+				chunk[offset] = previous;
+			} else {
+				chunk[offset] = new WormState(facade, worm);
+				chunkChanged = true;
+			}
+			index++;
+			if (offset == CHUNK_MASK || index == newSize) {
+				int chunkIndex = (index - 1) >> CHUNK_BITS;
+				newChunks[chunkIndex] = finishChunk(chunkIndex, chunk,
+						offset + 1, chunkChanged);
+				chunkChanged = false;
+			}
+		}
+		return new WorldSnapshot(newTick, newTime, newChunks, newSize);
+	}
+
+	private WormState[] finishChunk(int chunkIndex, WormState[] chunk,
+			int length, boolean changed) {
+		if (!changed && chunkIndex < chunks.length
+				&& chunks[chunkIndex].length == length) {
+			return chunks[chunkIndex];
+		}
+		WormState[] result = new WormState[length];
+		System.arraycopy(chunk, 0, result, 0, length);
+		return result;
+	}
+}
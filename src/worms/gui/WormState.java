@@ -0,0 +1,79 @@
+package worms.gui;
+
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * The state of a worm at the end of a tick. Instances are immutable, so they
+ * can be read on any thread.
+ *
+ * The worm itself is only kept to identify the state; it must not be read or
+ * modified outside the thread that advances the game.
+ */
+public final class WormState {
+
+	private final Worm worm;
+	private final String name;
+	private final double x;
+	private final double y;
+	private final double direction;
+	private final double radius;
+	private final int actionPoints;
+	private final int maxActionPoints;
+
+	WormState(IFacade facade, Worm worm) {
+		this.worm = worm;
+		this.name = facade.getName(worm);
+		this.x = facade.getX(worm);
+		this.y = facade.getY(worm);
+		this.direction = facade.getOrientation(worm);
+		this.radius = facade.getRadius(worm);
+		this.actionPoints = facade.getActionPoints(worm);
+		this.maxActionPoints = facade.getMaxActionPoints(worm);
+	}
+
+	/**
+	 * Whether this state is still the current state of the given worm.
+	 */
+	boolean isCurrent(IFacade facade, Worm worm) {
+		return this.worm == worm && x == facade.getX(worm)
+				&& y == facade.getY(worm)
+				&& direction == facade.getOrientation(worm)
+				&& radius == facade.getRadius(worm)
+				&& actionPoints == facade.getActionPoints(worm)
+				&& maxActionPoints == facade.getMaxActionPoints(worm)
+				&& name.equals(facade.getName(worm));
+	}
+
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getDirection() {
+		return direction;
+	}
+
+	public double getRadius() {
+		return radius;
+	}
+
+	public int getActionPoints() {
+		return actionPoints;
+	}
+
+	public int getMaxActionPoints() {
+		return maxActionPoints;
+	}
+}
@@ -31,6 +31,7 @@ public class WormsGUI {
 
 	public void switchToScreen(Screen newScreen) {
 		if (currentScreen != null) {
+			currentScreen.stopScreen();
 			screenPanel.remove(currentScreen.getPanel());
 		}
 		screenPanel.add(newScreen.getPanel(), BorderLayout.CENTER);
@@ -55,6 +56,9 @@ public class WormsGUI {
 	}
 
 	public void exit() {
+		if (currentScreen != null) {
+			currentScreen.stopScreen();
+		}
 		window.dispose();
 		System.exit(0);
 	}
@@ -0,0 +1,157 @@
+package worms.gui.game;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered name labels (text on a rounded background), keyed by name and
+ * font, so that the layout and rasterization of a name is only done once,
+ * however many worms carry it and however often they are drawn.
+ *
+ * The least recently used labels are discarded once the cache holds
+ * {@value #MAX_NB_LABELS} of them.
+ */
+class NameLabelCache {
+
+	private static final int MAX_NB_LABELS = 4096;
+
+	static class Label {
+		private final BufferedImage image;
+		private final double width;
+		private final double height;
+
+		private Label(BufferedImage image, double width, double height) {
+			this.image = image;
+			this.width = width;
+			this.height = height;
+		}
+
+		BufferedImage getImage() {
+			return image;
+		}
+
+		/**
+		 * Width of the label's background, without anti-aliasing (in pixels)
+		 */
+		double getWidth() {
+			return width;
+		}
+
+		/**
+		 * Height of the label's background, without anti-aliasing (in pixels)
+		 */
+		double getHeight() {
+			return height;
+		}
+	}
+
+	private static class Key {
+		private final String name;
+		private final Font font;
+
+		private Key(String name, Font font) {
+			this.name = name;
+			this.font = font;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return name.equals(other.name) && font.equals(other.font);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode() * 31 + font.hashCode();
+		}
+	}
+
+	private final Color background;
+	private final Color text;
+	private final double hMargin;
+	private final double vMargin;
+
+	private double maxWidth;
+
+	@SuppressWarnings("serial")
+	private final Map<Key, Label> labels = new LinkedHashMap<Key, Label>(16,
+			0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Label> eldest) {
+			return size() > MAX_NB_LABELS;
+		}
+	};
+
+	NameLabelCache(Color background, Color text, double hMargin,
+			double vMargin) {
+		this.background = background;
+		this.text = text;
+		this.hMargin = hMargin;
+		this.vMargin = vMargin;
+	}
+
+	/**
+	 * Returns the label for the given name, in the current font of the given
+	 * graphics.
+	 */
+	Label getLabel(Graphics2D g, String name) {
+		Key key = new Key(name, g.getFont());
+		Label result = labels.get(key);
+		if (result == null) {
+			result = createLabel(g, name);
+			labels.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Width of the widest label created so far (in pixels)
+	 */
+	double getMaxWidth() {
+		return maxWidth;
+	}
+
+	/**
+	 * Discard the label for the given name, in any font.
+	 */
+	void invalidate(String name) {
+		Iterator<Key> it = labels.keySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().name.equals(name)) {
+				it.remove();
+			}
+		}
+	}
+
+	private Label createLabel(Graphics2D g, String name) {
+		Rectangle2D bounds = g.getFontMetrics().getStringBounds(name, g);
+		double width = bounds.getWidth() + 2 * hMargin;
+		double height = bounds.getHeight() + 2 * vMargin;
+
+		BufferedImage image = new BufferedImage((int) Math.ceil(width) + 1,
+				(int) Math.ceil(height) + 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D imageGraphics = image.createGraphics();
+		imageGraphics.setRenderingHints(g.getRenderingHints());
+		imageGraphics.setFont(g.getFont());
+		imageGraphics.setColor(background);
+		imageGraphics.fill(new RoundRectangle2D.Double(0, 0, width, height, 5,
+				5));
+		imageGraphics.setColor(text);
+		imageGraphics.drawString(name, (float) hMargin,
+				(float) (height - vMargin));
+		imageGraphics.dispose();
+
+		maxWidth = Math.max(maxWidth, width);
+		return new Label(image, width, height);
+	}
+}
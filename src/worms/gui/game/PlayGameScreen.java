@@ -1,22 +1,37 @@
 package worms.gui.game;
 
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Component;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferStrategy;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
+import worms.gui.FrameMetrics;
 import worms.gui.GUIConstants;
 import worms.gui.GUIUtils;
 import worms.gui.GameState;
 import worms.gui.Screen;
+import worms.gui.SimulationEngine;
 import worms.gui.WormsGUI;
 import worms.gui.game.commands.Jump;
 import worms.gui.game.commands.Move;
@@ -35,15 +50,10 @@ public class PlayGameScreen extends Screen {
 		@Override
 		public void mouseClicked(MouseEvent e) {
 			Point point = e.getPoint();
-			for (WormSprite sprite : getSpritesOfType(WormSprite.class)) {
-				Worm worm = sprite.getWorm();
-				double[] xy = sprite.getCenterLocation();
-				double radius = GUIUtils.meterToPixels(getFacade().getRadius(
-						worm));
-				if (GUIUtils.distance(xy[0], xy[1], point.getX(), point.getY()) <= radius) {
-					getGameState().selectWorm(worm);
-					return;
-				}
+			WormSprite sprite = wormIndex.findAt(getLogicalX(point.getX()),
+					getLogicalY(point.getY()));
+			if (sprite != null) {
+				getGameState().selectWorm(sprite.getWorm());
 			}
 		}
 
@@ -53,6 +63,12 @@ public class PlayGameScreen extends Screen {
 			getCurrentInputMode().mouseDragged(e);
 		}
 
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			zoomCamera(Math.pow(GUIConstants.ZOOM_FACTOR,
+					-e.getWheelRotation()), e.getX(), e.getY());
+		}
+
 		@Override
 		public void keyPressed(KeyEvent e) {
 			switch (e.getKeyCode()) {
@@ -64,6 +80,29 @@ public class PlayGameScreen extends Screen {
 			case KeyEvent.VK_UP:
 				move(GUIConstants.DEFAULT_NB_STEPS);
 				break;
+			case KeyEvent.VK_W:
+				panCamera(0, -GUIConstants.PAN_DISTANCE);
+				break;
+			case KeyEvent.VK_S:
+				panCamera(0, GUIConstants.PAN_DISTANCE);
+				break;
+			case KeyEvent.VK_A:
+				panCamera(-GUIConstants.PAN_DISTANCE, 0);
+				break;
+			case KeyEvent.VK_D:
+				panCamera(GUIConstants.PAN_DISTANCE, 0);
+				break;
+			case KeyEvent.VK_PAGE_UP:
+				zoomCamera(GUIConstants.ZOOM_FACTOR, getScreenWidth() / 2.0,
+						getScreenHeight() / 2.0);
+				break;
+			case KeyEvent.VK_PAGE_DOWN:
+				zoomCamera(1 / GUIConstants.ZOOM_FACTOR,
+						getScreenWidth() / 2.0, getScreenHeight() / 2.0);
+				break;
+			case KeyEvent.VK_HOME:
+				setCamera(0, 0, 1);
+				break;
 			}
 		}
 
@@ -231,9 +270,36 @@ public class PlayGameScreen extends Screen {
 
 	private final PlayGameScreenPainter painter;
 	private final GameState gameState;
+	private final SimulationEngine engine;
+	private final FrameMetrics metrics = new FrameMetrics();
+
+	private volatile boolean gameLoopRunning;
+	// null unless the game loop is driven by a Swing timer
+	private Timer timer;
+	private long lastFrameTimestamp;
 
 	private final Set<Sprite> sprites = new HashSet<Sprite>();
 
+	/**
+	 * The sprites of each type that has been asked for, kept up to date when
+	 * sprites are added
+	 */
+	private final Map<Class<?>, Set<Sprite>> spritesByType = new HashMap<Class<?>, Set<Sprite>>();
+	private final Map<Class<?>, Set<Sprite>> spriteViewsByType = new HashMap<Class<?>, Set<Sprite>>();
+
+	private final Map<Worm, WormSprite> wormSprites = new IdentityHashMap<Worm, WormSprite>();
+
+	/**
+	 * Size of the cells of the spatial index of worm sprites (in worm-meter)
+	 */
+	private static final double WORM_INDEX_CELL_SIZE = 1.0;
+
+	/**
+	 * Worm sprites, indexed by the world location at which they are shown
+	 */
+	private final SpatialIndex<WormSprite> wormIndex = new SpatialIndex<WormSprite>(
+			WORM_INDEX_CELL_SIZE);
+
 	private static class MessageDisplay {
 		private LinkedList<String> messages = new LinkedList<String>();
 		private long currentMessageDisplayedSince;
@@ -284,6 +350,8 @@ public class PlayGameScreen extends Screen {
 	public PlayGameScreen(WormsGUI gui, GameState state) {
 		super(gui);
 		this.gameState = state;
+		this.engine = new SimulationEngine(state);
+		state.setMetrics(metrics);
 		this.painter = createPainter();
 	}
 
@@ -294,50 +362,272 @@ public class PlayGameScreen extends Screen {
 	@Override
 	protected void screenStarted() {
 		createSprites();
+		metrics.register();
 		runGameLoop();
 	}
 
+	@Override
+	protected void screenStopped() {
+		// the game ends with this screen
+		gameLoopRunning = false;
+		if (timer != null) {
+			timer.stop();
+		}
+		gameState.setJournal(null);
+		metrics.unregister();
+	}
+
+	private boolean isActiveRendering() {
+		return getGUI() != null && getGUI().getOptions().activeRendering;
+	}
+
+	@Override
+	protected Component createContents() {
+		if (isActiveRendering()) {
+			Canvas result = new Canvas();
+			// all painting is done by the render thread
+			result.setIgnoreRepaint(true);
+			result.setBackground(Color.BLACK);
+			return result;
+		}
+		return super.createContents();
+	}
+
 	private void runGameLoop() {
-		final AtomicLong lastUpdateTimestamp = new AtomicLong();
+		gameLoopRunning = true;
+		lastFrameTimestamp = System.nanoTime();
+		if (isActiveRendering()) {
+			runActiveGameLoop();
+		} else {
+			runTimerGameLoop();
+		}
+	}
 
+	private void runTimerGameLoop() {
 		final Timer timer = new Timer(1000 / GUIConstants.FRAMERATE,
 				new ActionListener() {
 					@Override
 					public void actionPerformed(ActionEvent e) {
-						long now = System.currentTimeMillis();
-						long delta = now - lastUpdateTimestamp.getAndSet(now);
-						double dt = delta / 1000.0 * GUIConstants.TIME_SCALE;
-						gameState.evolve(dt);
+						// like the render thread, stop once the screen has
+						// stopped
+						if (!gameLoopRunning) {
+							((Timer) e.getSource()).stop();
+							return;
+						}
+						long frameStart = System.nanoTime();
+						metrics.frameStarted(gameState.getNbQueuedCommands(),
+								gameState.getNbCommandLanes());
+						evolveFrame();
 						repaint();
+						metrics.record(FrameMetrics.Phase.LOOP,
+								System.nanoTime() - frameStart);
 					}
 				});
 		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
 			@Override
 			public void uncaughtException(Thread t, Throwable e) {
 				timer.stop();
-				e.printStackTrace();
-				getGUI().showError(
-						e.getClass().getName() + ": " + e.getMessage());
+				gameLoopFailed(e);
 			}
 		});
-		lastUpdateTimestamp.set(System.currentTimeMillis());
+		this.timer = timer;
 		timer.start();
 	}
 
+	/**
+	 * Run the game loop on a dedicated thread, which paces the frames and
+	 * paints each frame into a buffer strategy as soon as the game has been
+	 * advanced. The frames themselves run on the event dispatch thread, like
+	 * the input handlers.
+	 */
+	private void runActiveGameLoop() {
+		Canvas canvas = (Canvas) getPanel();
+		canvas.createBufferStrategy(2);
+		final BufferStrategy strategy = canvas.getBufferStrategy();
+
+		final Runnable frame = new Runnable() {
+			@Override
+			public void run() {
+				long frameStart = System.nanoTime();
+				metrics.frameStarted(gameState.getNbQueuedCommands(),
+						gameState.getNbCommandLanes());
+				evolveFrame();
+				renderFrame(strategy);
+				metrics.record(FrameMetrics.Phase.LOOP, System.nanoTime()
+						- frameStart);
+			}
+		};
+
+		Thread renderThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				long frameInterval = 1000000000L / GUIConstants.FRAMERATE;
+				long nextFrame = System.nanoTime();
+				while (gameLoopRunning) {
+					try {
+						SwingUtilities.invokeAndWait(frame);
+					} catch (InterruptedException e) {
+						return;
+					} catch (InvocationTargetException e) {
+						gameLoopRunning = false;
+						final Throwable cause = e.getCause();
+						SwingUtilities.invokeLater(new Runnable() {
+							@Override
+							public void run() {
+								gameLoopFailed(cause);
+							}
+						});
+						return;
+					}
+					nextFrame += frameInterval;
+					long delay = nextFrame - System.nanoTime();
+					if (delay < -frameInterval) {
+						// too far behind; do not try to catch up
+						nextFrame = System.nanoTime();
+					}
+					while (delay > 0) {
+						LockSupport.parkNanos(delay);
+						delay = nextFrame - System.nanoTime();
+					}
+				}
+			}
+		}, "Render loop");
+		renderThread.setDaemon(true);
+		renderThread.start();
+	}
+
+	/**
+	 * Advance the game by the time that elapsed since the previous frame.
+	 */
+	private void evolveFrame() {
+		long now = System.nanoTime();
+		double dt = (now - lastFrameTimestamp) / 1E9 * GUIConstants.TIME_SCALE;
+		lastFrameTimestamp = now;
+		engine.advance(dt);
+		metrics.record(FrameMetrics.Phase.EVOLVE, System.nanoTime() - now);
+	}
+
+	private void renderFrame(BufferStrategy strategy) {
+		do {
+			do {
+				Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+				try {
+					g.setColor(getPanel().getBackground());
+					g.fillRect(0, 0, getScreenWidth(), getScreenHeight());
+					paintContents(g);
+				} finally {
+					g.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+		} while (strategy.contentsLost());
+		// flush the window system's buffers, so that the frame shows up now
+		Toolkit.getDefaultToolkit().sync();
+	}
+
+	private void gameLoopFailed(Throwable e) {
+		gameLoopRunning = false;
+		e.printStackTrace();
+		getGUI().showError(e.getClass().getName() + ": " + e.getMessage());
+	}
+
 	public void createSprites() {
-		for (Worm worm : getGameState().getWorms()) {
-			WormSprite sprite = createWormSprite(worm);
-			sprites.add(sprite);
+		Collection<Worm> worms = getGameState().getWorms();
+		double[] xs = new double[worms.size()];
+		double[] ys = new double[worms.size()];
+		double[] orientations = new double[worms.size()];
+		double[] radii = new double[worms.size()];
+		getFacade().fillStates(worms, xs, ys, orientations, radii, null, null);
+		int i = 0;
+		for (Worm worm : worms) {
+			WormSprite sprite = createWormSprite(worm, xs[i], ys[i],
+					orientations[i], radii[i]);
+			addSprite(sprite);
+			wormSprites.put(worm, sprite);
+			updateWormIndex(sprite);
+			i++;
 		}
 	}
 
-	private WormSprite createWormSprite(Worm worm) {
-		double x = getScreenX(getFacade().getX(worm));
-		double y = getScreenY(getFacade().getY(worm));
-		WormSprite sprite = new WormSprite(worm);
+	private void addSprite(Sprite sprite) {
+		sprites.add(sprite);
+		for (Map.Entry<Class<?>, Set<Sprite>> entry : spritesByType.entrySet()) {
+			if (entry.getKey().isInstance(sprite)) {
+				entry.getValue().add(sprite);
+			}
+		}
+	}
+
+	/**
+	 * Show the worm sprites at the location on the screen where the camera
+	 * now shows the world locations at which they were indexed.
+	 */
+	@Override
+	protected void cameraChanged() {
+		for (WormSprite sprite : wormSprites.values()) {
+			sprite.setZoom(getZoom());
+			sprite.setCenterLocation(getScreenX(wormIndex.getX(sprite)),
+					getScreenY(wormIndex.getY(sprite)));
+		}
+		painter.invalidateAll();
+		super.cameraChanged();
+	}
+
+	/**
+	 * Move the given worm sprite to the given screen location.
+	 */
+	public void moveWormSprite(WormSprite sprite, double x, double y) {
+		painter.invalidate(sprite);
 		sprite.setCenterLocation(x, y);
-		sprite.setDirection(getFacade().getOrientation(worm));
-		sprite.setRadius(getFacade().getRadius(worm));
+		updateWormIndex(sprite);
+	}
+
+	/**
+	 * Turn the given worm sprite to the given direction.
+	 */
+	public void turnWormSprite(WormSprite sprite, double direction) {
+		painter.invalidate(sprite);
+		sprite.setDirection(direction);
+	}
+
+	/**
+	 * Resize the given worm sprite to the given radius (in worm-meter).
+	 */
+	public void resizeWormSprite(WormSprite sprite, double radius) {
+		painter.invalidate(sprite);
+		sprite.setRadius(radius);
+		updateWormIndex(sprite);
+	}
+
+	/**
+	 * Redraw the given worm sprite, whose worm was renamed from the given
+	 * name.
+	 */
+	public void renameWormSprite(WormSprite sprite, String oldName) {
+		painter.invalidateName(sprite, oldName);
+	}
+
+	private void updateWormIndex(WormSprite sprite) {
+		wormIndex.put(sprite, getLogicalX(sprite.getCenterX()),
+				getLogicalY(sprite.getCenterY()),
+				getFacade().getRadius(sprite.getWorm()));
+	}
+
+	/**
+	 * Spatial index of the worm sprites, by the world location at which they
+	 * are shown
+	 */
+	public SpatialIndex<WormSprite> getWormIndex() {
+		return wormIndex;
+	}
+
+	private WormSprite createWormSprite(Worm worm, double x, double y,
+			double orientation, double radius) {
+		WormSprite sprite = new WormSprite(worm);
+		sprite.setCenterLocation(getScreenX(x), getScreenY(y));
+		sprite.setDirection(orientation);
+		sprite.setZoom(getZoom());
+		sprite.setRadius(radius);
 		return sprite;
 	}
 
@@ -345,6 +635,10 @@ public class PlayGameScreen extends Screen {
 		return gameState;
 	}
 
+	public FrameMetrics getMetrics() {
+		return metrics;
+	}
+
 	protected IFacade getFacade() {
 		return getGameState().getFacade();
 	}
@@ -353,23 +647,33 @@ public class PlayGameScreen extends Screen {
 		return new PlayGameScreenPainter(this);
 	}
 
+	public PlayGameScreenPainter getPainter() {
+		return painter;
+	}
+
+	/**
+	 * Returns an unmodifiable view of the sprites of the given type
+	 */
+	@SuppressWarnings("unchecked")
 	public <T extends Sprite> Set<T> getSpritesOfType(Class<T> type) {
-		Set<T> result = new HashSet<T>();
-		for (Sprite sprite : sprites) {
-			if (type.isInstance(sprite)) {
-				result.add(type.cast(sprite));
+		Set<Sprite> result = spriteViewsByType.get(type);
+		if (result == null) {
+			Set<Sprite> spritesOfType = new HashSet<Sprite>();
+			for (Sprite sprite : sprites) {
+				if (type.isInstance(sprite)) {
+					spritesOfType.add(sprite);
+				}
 			}
+			spritesByType.put(type, spritesOfType);
+			result = Collections.unmodifiableSet(spritesOfType);
+			spriteViewsByType.put(type, result);
 		}
-		return result;
+		// only contains instances of type
+		return (Set<T>) result;
 	}
 
 	public WormSprite getWormSprite(Worm worm) {
-		for (WormSprite sprite : getSpritesOfType(WormSprite.class)) {
-			if (worm != null && worm.equals(sprite.getWorm())) {
-				return sprite;
-			}
-		}
-		return null;
+		return wormSprites.get(worm);
 	}
 
 	public void move(int nbSteps) {
@@ -425,7 +729,10 @@ public class PlayGameScreen extends Screen {
 
 	@Override
 	protected void paintScreen(Graphics2D g) {
+		long paintStart = System.nanoTime();
 		painter.paint(g);
+		metrics.record(FrameMetrics.Phase.PAINT, System.nanoTime()
+				- paintStart);
 		String message = messageDisplay.getMessage();
 		if (message != null) {
 			painter.paintMessage(g, message);
@@ -1,18 +1,58 @@
 package worms.gui.game;
 
 import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
 import java.awt.Shape;
 
 import worms.gui.GUIUtils;
 import worms.gui.game.sprites.WormSprite;
-import worms.model.ModelException;
 
 public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 
 	private static final int LOCATION_MARKER_SIZE = 4;
 
+	private static final Font METRICS_FONT = new Font(Font.MONOSPACED,
+			Font.PLAIN, 12);
+	private static final Color METRICS_BACKGROUND_COLOR = new Color(
+			0x80000000, true);
+	private static final Color METRICS_TEXT_COLOR = Color.YELLOW;
+	private static final int METRICS_MARGIN = 5;
+
 	public PlayGameScreenDebugPainter(PlayGameScreen screen) {
 		super(screen);
+		// debug markers show model state that is not tracked by the layer
+		setSceneLayerEnabled(false);
+	}
+
+	@Override
+	public void paint(Graphics2D g) {
+		super.paint(g);
+		drawMetrics(g);
+	}
+
+	/**
+	 * Draw the metrics of the game loop in the lower left corner
+	 */
+	protected void drawMetrics(Graphics2D g) {
+		String[] lines = getScreen().getMetrics().getSummary();
+		g.setFont(METRICS_FONT);
+		int lineHeight = g.getFontMetrics().getHeight();
+		int width = 0;
+		for (String line : lines) {
+			width = Math.max(width, g.getFontMetrics().stringWidth(line));
+		}
+		int height = lines.length * lineHeight;
+		int top = getScreen().getScreenHeight() - height - 2 * METRICS_MARGIN;
+
+		g.setColor(METRICS_BACKGROUND_COLOR);
+		g.fillRect(0, top, width + 2 * METRICS_MARGIN, height + 2
+				* METRICS_MARGIN);
+		g.setColor(METRICS_TEXT_COLOR);
+		for (int i = 0; i < lines.length; i++) {
+			g.drawString(lines[i], METRICS_MARGIN, top + METRICS_MARGIN + (i + 1)
+					* lineHeight - g.getFontMetrics().getDescent());
+		}
 	}
 
 	@Override
@@ -32,27 +72,20 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 
 	@Override
 	protected void drawJumpMarkers(WormSprite sprite) {
-		try {
-			double time = getFacade().getJumpTime(sprite.getWorm());
-			double[] prevXY = getFacade().getJumpStep(sprite.getWorm(), 0);
-			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE * 2);
-			for (int i = 1; i <= n; i++) {
-				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(sprite.getWorm(), dt);
-				if (xy != null && prevXY != null) {
-					double jumpX = getScreenX(xy[0]);
-					double jumpY = getScreenY(xy[1]);
-					graphics.setColor(JUMP_MARKER_COLOR);
-					graphics.drawLine((int) getScreenX(prevXY[0]),
-							(int) getScreenY(prevXY[1]), (int) jumpX,
-							(int) jumpY);
-					prevXY = xy;
-					drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
-							JUMP_MARKER_COLOR);
-				}
-			}
-		} catch (ModelException e) {
+		double[] trajectory = getTrajectory(sprite,
+				JUMP_MARKER_TIME_DISTANCE / 2);
+		if (trajectory == null) {
 			// cannot jump; draw nothing
+			return;
+		}
+		for (int i = 1; 2 * i < trajectory.length; i++) {
+			double jumpX = getScreenX(trajectory[2 * i]);
+			double jumpY = getScreenY(trajectory[2 * i + 1]);
+			graphics.setColor(JUMP_MARKER_COLOR);
+			graphics.drawLine((int) getScreenX(trajectory[2 * i - 2]),
+					(int) getScreenY(trajectory[2 * i - 1]), (int) jumpX,
+					(int) jumpY);
+			drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE, JUMP_MARKER_COLOR);
 		}
 	}
 
@@ -74,14 +107,13 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 		double y = sprite.getCenterY();
 
 		graphics.setColor(Color.YELLOW);
-		Shape circle = GUIUtils.circleAt(x, y, GUIUtils.meterToPixels(r));
+		Shape circle = GUIUtils.circleAt(x, y, getScreen().getScreenLength(r));
 		graphics.draw(circle);
 
 	}
 
 	protected void drawDirectionLine(WormSprite sprite) {
-		double r = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double r = getScreenRadius(sprite);
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
 		double direction = getFacade().getOrientation(sprite.getWorm());
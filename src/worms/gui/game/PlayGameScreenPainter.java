@@ -7,12 +7,13 @@ import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
+import java.util.ArrayList;
+import java.util.List;
 
 import worms.gui.GUIUtils;
 import worms.gui.GameState;
 import worms.gui.game.sprites.WormSprite;
 import worms.model.IFacade;
-import worms.model.ModelException;
 
 public class PlayGameScreenPainter {
 
@@ -41,6 +42,9 @@ public class PlayGameScreenPainter {
 	protected static final double TEXT_BAR_V_MARGIN = 3;
 	protected static final double TEXT_BAR_V_OFFSET = 2;
 
+	protected static final Font MESSAGE_FONT = new Font(Font.SANS_SERIF,
+			Font.PLAIN, 20);
+
 	protected static final Color RENAME_BACKGROUND_COLOR = new Color(
 			0x600e53a7, true);
 	protected static final Color RENAME_TEXT_COLOR = Color.WHITE;
@@ -53,11 +57,87 @@ public class PlayGameScreenPainter {
 	protected static final double JUMP_MARKER_TIME_DISTANCE = 0.1; // worm-seconds
 	protected static final double DIRECTION_INDICATOR_SIZE = 10;
 
+	/**
+	 * Worms with a smaller radius on the screen (in pixels) are drawn as
+	 * dots rather than as sprites
+	 */
+	protected static final double LOD_DOT_RADIUS = 3;
+
+	/**
+	 * Worms with a smaller radius on the screen (in pixels) are drawn without
+	 * name and action bar
+	 */
+	protected static final double LOD_DETAILS_RADIUS = 8;
+
+	protected static final Color WORM_DOT_COLOR = new Color(0xffd9826b, true);
+
 	protected Graphics2D graphics;
 	private final PlayGameScreen screen;
 
+	private final TrajectoryCache trajectories;
+
+	/**
+	 * Retained image of the worms that are not selected; null if all worms
+	 * are painted in every frame
+	 */
+	private SceneLayer sceneLayer;
+
+	private final List<WormSprite> visibleSprites = new ArrayList<WormSprite>();
+
+	private final NameLabelCache nameLabels = new NameLabelCache(
+			NAME_BAR_BACKGROUND, NAME_BAR_TEXT, TEXT_BAR_H_MARGIN,
+			TEXT_BAR_V_MARGIN);
+
 	public PlayGameScreenPainter(PlayGameScreen screen) {
 		this.screen = screen;
+		this.trajectories = new TrajectoryCache(getFacade());
+		setSceneLayerEnabled(true);
+	}
+
+	/**
+	 * Enable or disable retaining the image of the worms that are not
+	 * selected across frames. When enabled, changes to worms must be reported
+	 * through {@link #invalidate(WormSprite)}.
+	 */
+	public void setSceneLayerEnabled(boolean enabled) {
+		if (enabled && sceneLayer == null) {
+			sceneLayer = new SceneLayer(this);
+		} else if (!enabled) {
+			sceneLayer = null;
+		}
+	}
+
+	public boolean isSceneLayerEnabled() {
+		return sceneLayer != null;
+	}
+
+	/**
+	 * Redraw the given worm sprite in the next frame.
+	 */
+	public void invalidate(WormSprite sprite) {
+		if (sceneLayer != null) {
+			sceneLayer.invalidate(sprite);
+		}
+	}
+
+	/**
+	 * Redraw the given worm sprite, whose worm was renamed, in the next
+	 * frame.
+	 */
+	public void invalidateName(WormSprite sprite, String oldName) {
+		if (oldName != null) {
+			nameLabels.invalidate(oldName);
+		}
+		invalidate(sprite);
+	}
+
+	/**
+	 * Redraw all worm sprites in the next frame.
+	 */
+	public void invalidateAll() {
+		if (sceneLayer != null) {
+			sceneLayer.invalidateAll();
+		}
 	}
 
 	public PlayGameScreen getScreen() {
@@ -75,16 +155,95 @@ public class PlayGameScreenPainter {
 	public void paint(Graphics2D g) {
 		this.graphics = g;
 
-		for (WormSprite sprite : getScreen().getSpritesOfType(WormSprite.class)) {
-			if (sprite.getWorm() == getState().getSelectedWorm()) {
-				drawSelection(sprite);
+		if (sceneLayer != null) {
+			WormSprite selected = getScreen().getWormSprite(
+					getState().getSelectedWorm());
+			sceneLayer.paint(g, selected, getScreen().getScreenWidth(),
+					getScreen().getScreenHeight());
+			if (selected != null) {
+				drawSelection(selected);
+				paintWorm(selected);
+			}
+		} else {
+			for (WormSprite sprite : getVisibleWormSprites()) {
+				if (sprite.getWorm() == getState().getSelectedWorm()) {
+					drawSelection(sprite);
+				}
+				paintWorm(sprite);
 			}
-			paintWorm(sprite);
 		}
 
 		this.graphics = null;
 	}
 
+	/**
+	 * Returns the worm sprites that may be (partly) visible on the screen.
+	 * The returned list is reused by the next call.
+	 */
+	protected List<WormSprite> getVisibleWormSprites() {
+		visibleSprites.clear();
+		SpatialIndex<WormSprite> index = getScreen().getWormIndex();
+		// bars and images stick out of the indexed circles by at most this much
+		double margin = Math.max(ACTION_BAR_WIDTH, nameLabels.getMaxWidth())
+				+ getScreen().getScreenLength(index.getMaxRadius());
+		index.findInRange(getScreen().getLogicalX(-margin), getScreen()
+				.getLogicalY(getScreen().getScreenHeight() + margin),
+				getScreen().getLogicalX(getScreen().getScreenWidth() + margin),
+				getScreen().getLogicalY(-margin), visibleSprites);
+		return visibleSprites;
+	}
+
+	/**
+	 * Returns whether the given screen location is on the screen.
+	 */
+	protected boolean isOnScreen(double x, double y) {
+		return x >= 0 && y >= 0 && x < getScreen().getScreenWidth()
+				&& y < getScreen().getScreenHeight();
+	}
+
+	/**
+	 * Paint the given worm sprite with the given graphics, rather than with
+	 * the graphics of the current frame.
+	 */
+	void paintWormOn(Graphics2D g, WormSprite sprite) {
+		Graphics2D frameGraphics = this.graphics;
+		this.graphics = g;
+		paintWorm(sprite);
+		this.graphics = frameGraphics;
+	}
+
+	/**
+	 * Returns the screen region covered by the given (unselected) worm sprite
+	 * when painted with the given graphics.
+	 */
+	protected Rectangle2D getWormBounds(Graphics2D g, WormSprite sprite) {
+		double radius = getScreenRadius(sprite);
+		if (radius < LOD_DOT_RADIUS) {
+			return getDot(sprite, radius);
+		}
+		// the image that is drawn, rather than the exact scale, since the
+		// cached image may be larger
+		int width = sprite.getDrawnWidth();
+		int height = sprite.getDrawnHeight();
+		Rectangle2D result = new Rectangle2D.Double(sprite.getCenterX()
+				- width / 2.0, sprite.getCenterY() - height / 2.0, width,
+				height);
+		if (radius >= LOD_DETAILS_RADIUS) {
+			result.add(getNameBar(g, sprite).getBounds2D());
+			result.add(getActionBar(sprite).getBounds2D());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the radius on the screen (in pixels) of the worm of the given
+	 * sprite.
+	 */
+	protected double getScreenRadius(WormSprite sprite) {
+		return getScreen().getScreenLength(
+				getFacade().getRadius(sprite.getWorm()));
+	}
+
 	protected double getScreenX(double x) {
 		return getScreen().getScreenX(x);
 	}
@@ -94,12 +253,19 @@ public class PlayGameScreenPainter {
 	}
 
 	protected void paintWorm(WormSprite sprite) {
+		double radius = getScreenRadius(sprite);
 
-		sprite.draw(graphics);
+		if (radius < LOD_DOT_RADIUS) {
+			drawDot(sprite, radius);
+		} else {
+			sprite.draw(graphics);
+		}
 
-		drawName(sprite);
+		if (radius >= LOD_DETAILS_RADIUS) {
+			drawName(sprite);
 
-		drawActionBar(sprite);
+			drawActionBar(sprite);
+		}
 
 		if (getState().getSelectedWorm() == sprite.getWorm()) {
 			drawDirectionIndicator(sprite);
@@ -107,40 +273,71 @@ public class PlayGameScreenPainter {
 		}
 	}
 
-	protected void drawName(WormSprite sprite) {
-		final double radius = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+	private static Rectangle2D getDot(WormSprite sprite, double radius) {
+		int size = Math.max(1, (int) Math.round(2 * radius));
+		return new Rectangle2D.Double(
+				(int) Math.round(sprite.getCenterX() - size / 2.0),
+				(int) Math.round(sprite.getCenterY() - size / 2.0), size, size);
+	}
+
+	/**
+	 * Draw the worm of the given sprite as a dot, for when it is too small
+	 * on the screen to be recognized.
+	 */
+	protected void drawDot(WormSprite sprite, double radius) {
+		graphics.setColor(WORM_DOT_COLOR);
+		graphics.fill(getDot(sprite, radius));
+	}
+
+	protected String getName(WormSprite sprite) {
 		String name = getFacade().getName(sprite.getWorm());
 
 		if (name == null) {
 			name = "(null)";
 		}
+		return name;
+	}
 
-		Rectangle2D bounds = graphics.getFontMetrics().getStringBounds(name,
-				graphics);
-		final double stringWidth = bounds.getWidth();
-		final double stringHeight = bounds.getHeight();
+	/**
+	 * Returns the region covered by the name bar of the given sprite, when
+	 * drawn with the given graphics.
+	 */
+	protected Rectangle2D getNameBar(Graphics2D g, WormSprite sprite) {
+		NameLabelCache.Label label = nameLabels.getLabel(g, getName(sprite));
+		return new Rectangle2D.Double(getNameBarX(sprite, label),
+				getNameBarY(sprite, label), label.getImage().getWidth(),
+				label.getImage().getHeight());
+	}
 
-		final double x = sprite.getCenterX() - stringWidth / 2;
-		final double y = sprite.getCenterY() - radius - TEXT_BAR_V_OFFSET;
+	private int getNameBarX(WormSprite sprite, NameLabelCache.Label label) {
+		return (int) Math.round(sprite.getCenterX() - label.getWidth() / 2);
+	}
 
-		RoundRectangle2D nameBarFill = new RoundRectangle2D.Double(x
-				- TEXT_BAR_H_MARGIN, y - stringHeight - TEXT_BAR_V_MARGIN,
-				stringWidth + 2 * TEXT_BAR_H_MARGIN, stringHeight + 2
-						* TEXT_BAR_V_MARGIN, 5, 5);
-		graphics.setColor(NAME_BAR_BACKGROUND);
-		graphics.fill(nameBarFill);
+	private int getNameBarY(WormSprite sprite, NameLabelCache.Label label) {
+		final double radius = getScreenRadius(sprite);
+		return (int) Math.round(sprite.getCenterY() - radius
+				- TEXT_BAR_V_OFFSET - label.getHeight());
+	}
 
-		graphics.setColor(NAME_BAR_TEXT);
+	protected void drawName(WormSprite sprite) {
+		NameLabelCache.Label label = nameLabels.getLabel(graphics,
+				getName(sprite));
+		graphics.drawImage(label.getImage(), getNameBarX(sprite, label),
+				getNameBarY(sprite, label), null);
+	}
 
-		graphics.drawString(name, (float) x, (float) (y));
+	protected RoundRectangle2D getActionBar(WormSprite sprite) {
+		double x = sprite.getCenterX();
+		double y = sprite.getCenterY();
+		double radius = getScreenRadius(sprite);
+		return new RoundRectangle2D.Double(x - ACTION_BAR_WIDTH / 2, y
+				+ radius, ACTION_BAR_WIDTH, ACTION_BAR_HEIGHT, 5, 5);
 	}
 
 	protected void drawActionBar(WormSprite sprite) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double radius = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double radius = getScreenRadius(sprite);
 
 		double actionPoints = getFacade().getActionPoints(sprite.getWorm());
 		double maxActionPoints = getFacade().getMaxActionPoints(
@@ -152,9 +349,7 @@ public class PlayGameScreenPainter {
 		graphics.setColor(ACTION_POINTS_COLOR);
 		graphics.fill(actionBarFill);
 
-		RoundRectangle2D actionBar = new RoundRectangle2D.Double(x
-				- ACTION_BAR_WIDTH / 2, y + radius, ACTION_BAR_WIDTH,
-				ACTION_BAR_HEIGHT, 5, 5);
+		RoundRectangle2D actionBar = getActionBar(sprite);
 		graphics.setColor(BAR_OUTLINE_COLOR);
 		graphics.draw(actionBar);
 	}
@@ -166,15 +361,14 @@ public class PlayGameScreenPainter {
 
 		graphics.setColor(SELECTION_FILL_COLOR);
 
-		Shape circle = GUIUtils.circleAt(x, y, GUIUtils.meterToPixels(r));
+		Shape circle = GUIUtils.circleAt(x, y, getScreen().getScreenLength(r));
 		graphics.fill(circle);
 	}
 
 	protected void drawDirectionIndicator(WormSprite sprite) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double r = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double r = getScreenRadius(sprite);
 		r += DIRECTION_INDICATOR_SIZE / 2;
 		double direction = GUIUtils.restrictDirection(getFacade()
 				.getOrientation(sprite.getWorm()));
@@ -192,8 +386,7 @@ public class PlayGameScreenPainter {
 			double angle) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double r = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double r = getScreenRadius(sprite);
 		r += DIRECTION_INDICATOR_SIZE / 2;
 		double direction = GUIUtils.restrictDirection(getFacade()
 				.getOrientation(sprite.getWorm()) + angle);
@@ -212,22 +405,30 @@ public class PlayGameScreenPainter {
 	}
 
 	protected void drawJumpMarkers(WormSprite sprite) {
-		try {
-			double time = getFacade().getJumpTime(sprite.getWorm());
-			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE);
-			for (int i = 1; i <= n; i++) {
-				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(sprite.getWorm(), dt);
-				if (xy != null) {
-					double jumpX = getScreenX(xy[0]);
-					double jumpY = getScreenY(xy[1]);
-					drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
-							JUMP_MARKER_COLOR);
-				}
-			}
-		} catch (ModelException e) {
+		double[] trajectory = getTrajectory(sprite, JUMP_MARKER_TIME_DISTANCE);
+		if (trajectory == null) {
 			// cannot jump; draw nothing
+			return;
 		}
+		for (int i = 1; 2 * i < trajectory.length; i++) {
+			double jumpX = getScreenX(trajectory[2 * i]);
+			double jumpY = getScreenY(trajectory[2 * i + 1]);
+			if (isOnScreen(jumpX, jumpY)) {
+				drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
+						JUMP_MARKER_COLOR);
+			}
+		}
+	}
+
+	/**
+	 * Returns the jump trajectory of the worm of the given sprite, sampled
+	 * every given time distance (in worm-seconds), as x and y coordinates of
+	 * consecutive samples (starting at the worm's location), or null if the
+	 * worm cannot jump. The trajectory is only computed again when the worm
+	 * has changed.
+	 */
+	protected double[] getTrajectory(WormSprite sprite, double timeDistance) {
+		return trajectories.getTrajectory(sprite.getWorm(), timeDistance);
 	}
 
 	protected void drawCrossMarker(double x, double y, int size, Color color) {
@@ -239,7 +440,7 @@ public class PlayGameScreenPainter {
 	void paintNameEntry(Graphics2D g, String enteredName) {
 		g.setColor(RENAME_BACKGROUND_COLOR);
 		g.fillRect(0, 0, getScreen().getScreenWidth(), 120);
-		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
+		g.setFont(MESSAGE_FONT);
 		g.setColor(RENAME_TEXT_COLOR);
 		GUIUtils.drawCenteredString(g, "Enter new name for worm: "
 				+ enteredName + "\u2502", getScreen().getScreenWidth(), 100);
@@ -248,7 +449,7 @@ public class PlayGameScreenPainter {
 	void paintMessage(Graphics2D g, String message) {
 		g.setColor(MESSAGE_BACKGROUND_COLOR);
 		g.fillRect(0, 0, getScreen().getScreenWidth(), 120);
-		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
+		g.setFont(MESSAGE_FONT);
 		g.setColor(MESSAGE_TEXT_COLOR);
 		GUIUtils.drawCenteredString(g, message, getScreen().getScreenWidth(),
 				100);
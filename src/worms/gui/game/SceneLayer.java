@@ -0,0 +1,251 @@
+package worms.gui.game;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import worms.gui.game.sprites.WormSprite;
+
+/**
+ * A retained image of all worms except one (the selected worm), which is
+ * painted on top of it in every frame.
+ *
+ * Worms whose appearance changes must be invalidated. Only the screen regions
+ * they covered before and cover after the change are re-rasterized, together
+ * with the other worms that overlap those regions, so that the cost of a
+ * frame depends on the number of changed worms rather than on the total
+ * number of worms. Frames in which nothing changed only copy the image.
+ *
+ * Only the worms that are (or come) in view are rasterized; the order in
+ * which overlapping worms are drawn is the order in which they were first
+ * seen.
+ */
+class SceneLayer {
+
+	/**
+	 * If more than this fraction of the worms changed, the whole image is
+	 * redrawn rather than the individual regions
+	 */
+	private static final double FULL_REDRAW_FRACTION = 0.25;
+
+	/**
+	 * Size of the cells of the index of drawn worms (in pixels)
+	 */
+	private static final double INDEX_CELL_SIZE = 64;
+
+	/**
+	 * Margin around the drawn bounds of a worm, for anti-aliasing and the
+	 * rounding of the position of its image (in pixels)
+	 */
+	private static final int BOUNDS_MARGIN = 2;
+
+	private static class Entry {
+		private final int order;
+		private Rectangle bounds;
+		private boolean dirty;
+
+		private Entry(int order) {
+			this.order = order;
+		}
+	}
+
+	private final PlayGameScreenPainter painter;
+
+	private BufferedImage image;
+	private Graphics2D imageGraphics;
+
+	private final Map<WormSprite, Entry> entries = new IdentityHashMap<WormSprite, Entry>();
+
+	/**
+	 * Drawn worms, indexed by the screen region they cover
+	 */
+	private final SpatialIndex<WormSprite> drawnIndex = new SpatialIndex<WormSprite>(
+			INDEX_CELL_SIZE);
+
+	private final List<WormSprite> dirtySprites = new ArrayList<WormSprite>();
+	private boolean fullRedrawNeeded = true;
+	private int nextOrder;
+
+	private WormSprite excluded;
+
+	private final Comparator<WormSprite> drawingOrder = new Comparator<WormSprite>() {
+		@Override
+		public int compare(WormSprite o1, WormSprite o2) {
+			return entries.get(o1).order - entries.get(o2).order;
+		}
+	};
+
+	SceneLayer(PlayGameScreenPainter painter) {
+		this.painter = painter;
+	}
+
+	/**
+	 * Mark the given sprite as changed, so that it is redrawn in the next
+	 * frame.
+	 */
+	void invalidate(WormSprite sprite) {
+		Entry entry = getEntry(sprite);
+		if (!entry.dirty) {
+			entry.dirty = true;
+			dirtySprites.add(sprite);
+		}
+	}
+
+	void invalidateAll() {
+		fullRedrawNeeded = true;
+	}
+
+	private Entry getEntry(WormSprite sprite) {
+		Entry entry = entries.get(sprite);
+		if (entry == null) {
+			entry = new Entry(nextOrder++);
+			entries.put(sprite, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Bring the image up to date and draw it with the given graphics.
+	 *
+	 * @param excluded
+	 *            a sprite that is not part of the image (may be null)
+	 */
+	void paint(Graphics2D g, WormSprite excluded, int width, int height) {
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (image == null || image.getWidth() != width
+				|| image.getHeight() != height) {
+			createImage(g, width, height);
+		}
+		if (excluded != this.excluded) {
+			if (this.excluded != null) {
+				invalidate(this.excluded);
+			}
+			if (excluded != null) {
+				invalidate(excluded);
+			}
+			this.excluded = excluded;
+		}
+		if (dirtySprites.size() > FULL_REDRAW_FRACTION * entries.size()) {
+			fullRedrawNeeded = true;
+		}
+
+		if (fullRedrawNeeded) {
+			redrawAll(painter.getVisibleWormSprites());
+		} else if (!dirtySprites.isEmpty()) {
+			redrawDirtyRegions();
+		}
+		g.drawImage(image, 0, 0, null);
+	}
+
+	private void createImage(Graphics2D g, int width, int height) {
+		if (imageGraphics != null) {
+			imageGraphics.dispose();
+		}
+		GraphicsConfiguration configuration = g.getDeviceConfiguration();
+		// a compatible image can be cached in video memory by Java2D
+		image = configuration.createCompatibleImage(width, height,
+				Transparency.TRANSLUCENT);
+		imageGraphics = image.createGraphics();
+		imageGraphics.setRenderingHints(g.getRenderingHints());
+		imageGraphics.setFont(g.getFont());
+		fullRedrawNeeded = true;
+	}
+
+	private void redrawAll(Collection<WormSprite> visible) {
+		imageGraphics.setClip(null);
+		clear(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+
+		for (WormSprite sprite : dirtySprites) {
+			updateBounds(sprite);
+		}
+		List<WormSprite> ordered = new ArrayList<WormSprite>(visible);
+		for (WormSprite sprite : ordered) {
+			getEntry(sprite);
+		}
+		Collections.sort(ordered, drawingOrder);
+
+		for (WormSprite sprite : ordered) {
+			updateBounds(sprite);
+			if (sprite != excluded) {
+				painter.paintWormOn(imageGraphics, sprite);
+			}
+		}
+		dirtySprites.clear();
+		fullRedrawNeeded = false;
+	}
+
+	private void redrawDirtyRegions() {
+		List<Rectangle> regions = new ArrayList<Rectangle>();
+		for (WormSprite sprite : dirtySprites) {
+			Rectangle oldBounds = entries.get(sprite).bounds;
+			if (oldBounds != null) {
+				addRegion(regions, oldBounds);
+			}
+			updateBounds(sprite);
+			if (sprite != excluded) {
+				addRegion(regions, entries.get(sprite).bounds);
+			}
+		}
+		dirtySprites.clear();
+
+		List<WormSprite> candidates = new ArrayList<WormSprite>();
+		for (Rectangle region : regions) {
+			imageGraphics.setClip(region);
+			clear(region);
+			candidates.clear();
+			drawnIndex.findInRange(region.getMinX(), region.getMinY(),
+					region.getMaxX(), region.getMaxY(), candidates);
+			Collections.sort(candidates, drawingOrder);
+			for (WormSprite sprite : candidates) {
+				if (sprite != excluded
+						&& entries.get(sprite).bounds.intersects(region)) {
+					painter.paintWormOn(imageGraphics, sprite);
+				}
+			}
+		}
+		imageGraphics.setClip(null);
+	}
+
+	/**
+	 * Add the given region, merging it with an overlapping region if there is
+	 * one.
+	 */
+	private static void addRegion(List<Rectangle> regions, Rectangle region) {
+		for (Rectangle other : regions) {
+			if (other.intersects(region)) {
+				other.add(region);
+				return;
+			}
+		}
+		regions.add(new Rectangle(region));
+	}
+
+	private void updateBounds(WormSprite sprite) {
+		Entry entry = entries.get(sprite);
+		entry.dirty = false;
+		entry.bounds = painter.getWormBounds(imageGraphics, sprite)
+				.getBounds();
+		entry.bounds.grow(BOUNDS_MARGIN, BOUNDS_MARGIN);
+		drawnIndex.put(sprite, entry.bounds.getCenterX(),
+				entry.bounds.getCenterY(), Math.hypot(entry.bounds.width,
+						entry.bounds.height) / 2);
+	}
+
+	private void clear(Rectangle region) {
+		imageGraphics.setComposite(AlphaComposite.Clear);
+		imageGraphics.fill(region);
+		imageGraphics.setComposite(AlphaComposite.SrcOver);
+	}
+}
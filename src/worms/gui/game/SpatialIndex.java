@@ -0,0 +1,353 @@
+package worms.gui.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import worms.gui.GUIUtils;
+import worms.util.LongHashMap;
+
+/**
+ * A uniform grid over world coordinates, indexing circular items by the cell
+ * that contains their center.
+ *
+ * Point, nearest-item and range queries only visit the cells near the query,
+ * so their cost depends on the density of items rather than on their total
+ * number. Queries that would visit more cells than there are occupied cells
+ * visit all items instead.
+ */
+public class SpatialIndex<T> {
+
+	private static class Entry<T> {
+		private final T item;
+		private double x;
+		private double y;
+		private double radius;
+		private long cell;
+
+		private Entry(T item) {
+			this.item = item;
+		}
+	}
+
+	private final double cellSize;
+
+	private final LongHashMap<List<Entry<T>>> cells = new LongHashMap<List<Entry<T>>>();
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<T, Entry<T>>();
+
+	/**
+	 * Largest radius of the indexed items; queries look this far beyond their
+	 * bounds
+	 */
+	private double maxRadius;
+
+	/**
+	 * False once the item with the largest radius has shrunk or been removed;
+	 * maxRadius is then recomputed when it is next needed
+	 */
+	private boolean maxRadiusValid = true;
+
+	/**
+	 * @param cellSize
+	 *            (in worm-meter)
+	 */
+	public SpatialIndex(double cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("Cell size must be positive");
+		}
+		this.cellSize = cellSize;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * The largest radius of the indexed items
+	 */
+	public double getMaxRadius() {
+		if (!maxRadiusValid) {
+			maxRadius = 0;
+			for (Entry<T> entry : entries.values()) {
+				maxRadius = Math.max(maxRadius, entry.radius);
+			}
+			maxRadiusValid = true;
+		}
+		return maxRadius;
+	}
+
+	/**
+	 * Add the given item as a circle with the given center and radius, or
+	 * move it there if it is already indexed.
+	 */
+	public void put(T item, double x, double y, double radius) {
+		Entry<T> entry = entries.get(item);
+		long cell = cellOf(x, y);
+		if (entry == null) {
+			entry = new Entry<T>(item);
+			entries.put(item, entry);
+			addToCell(cell, entry);
+		} else if (entry.cell != cell) {
+			removeFromCell(entry.cell, entry);
+			addToCell(cell, entry);
+		}
+		if (radius < entry.radius && entry.radius >= maxRadius) {
+			maxRadiusValid = false;
+		}
+		entry.cell = cell;
+		entry.x = x;
+		entry.y = y;
+		entry.radius = radius;
+		maxRadius = Math.max(maxRadius, radius);
+	}
+
+	/**
+	 * Returns the x coordinate of the center of the given indexed item.
+	 */
+	public double getX(T item) {
+		return getEntry(item).x;
+	}
+
+	/**
+	 * Returns the y coordinate of the center of the given indexed item.
+	 */
+	public double getY(T item) {
+		return getEntry(item).y;
+	}
+
+	private Entry<T> getEntry(T item) {
+		Entry<T> entry = entries.get(item);
+		if (entry == null) {
+			throw new IllegalArgumentException("Item is not indexed");
+		}
+		return entry;
+	}
+
+	public void remove(T item) {
+		Entry<T> entry = entries.remove(item);
+		if (entry != null) {
+			removeFromCell(entry.cell, entry);
+			if (entry.radius >= maxRadius) {
+				maxRadiusValid = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the item whose circle contains the given location, or null if
+	 * there is none. If several circles contain the location, the one whose
+	 * center is closest is returned.
+	 */
+	public T findAt(double x, double y) {
+		double radius = getMaxRadius();
+		int minCellX = toCell(x - radius);
+		int maxCellX = toCell(x + radius);
+		int minCellY = toCell(y - radius);
+		int maxCellY = toCell(y + radius);
+		if (coversOccupiedCells(minCellX, minCellY, maxCellX, maxCellY)) {
+			return findAt(x, y, entries.values());
+		}
+		T result = null;
+		double best = Double.POSITIVE_INFINITY;
+		// long, so that the loops end if the bounds are Integer.MAX_VALUE
+		for (long cx = minCellX; cx <= maxCellX; cx++) {
+			for (long cy = minCellY; cy <= maxCellY; cy++) {
+				List<Entry<T>> cell = cells.get(key((int) cx, (int) cy));
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					Entry<T> entry = cell.get(i);
+					double distance = GUIUtils.distance(x, y, entry.x, entry.y);
+					if (distance <= entry.radius && distance < best) {
+						best = distance;
+						result = entry.item;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private T findAt(double x, double y, Collection<Entry<T>> candidates) {
+		T result = null;
+		double best = Double.POSITIVE_INFINITY;
+		for (Entry<T> entry : candidates) {
+			double distance = GUIUtils.distance(x, y, entry.x, entry.y);
+			if (distance <= entry.radius && distance < best) {
+				best = distance;
+				result = entry.item;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the item whose center is closest to the given location and at
+	 * most the given distance away from it, or null if there is none.
+	 *
+	 * The cells are searched in square rings around the cell of the location,
+	 * until the closest center found is nearer than any cell of the next
+	 * ring, or more cells have been searched than there are occupied cells.
+	 */
+	public T findNearest(double x, double y, double maxDistance) {
+		long centerX = toCell(x);
+		long centerY = toCell(y);
+		Entry<T> best = null;
+		double bestDistance = maxDistance;
+		long nbVisited = 0;
+		// the location lies in the center cell, so the cells of a ring are
+		// at least (ring - 1) cells away from it
+		for (long ring = 0; (ring - 1) * cellSize <= bestDistance; ring++) {
+			if (nbVisited > cells.size()) {
+				return nearest(x, y, maxDistance, entries.values());
+			}
+			if (ring == 0) {
+				best = nearest(x, y, bestDistance, best, centerX, centerY);
+				nbVisited++;
+			} else {
+				// the top and bottom rows, then the columns in between
+				for (long cx = centerX - ring; cx <= centerX + ring; cx++) {
+					best = nearest(x, y, maxDistance, best, cx, centerY - ring);
+					best = nearest(x, y, maxDistance, best, cx, centerY + ring);
+				}
+				for (long cy = centerY - ring + 1; cy < centerY + ring; cy++) {
+					best = nearest(x, y, maxDistance, best, centerX - ring, cy);
+					best = nearest(x, y, maxDistance, best, centerX + ring, cy);
+				}
+				nbVisited += 8 * ring;
+			}
+			if (best != null) {
+				bestDistance = GUIUtils.distance(x, y, best.x, best.y);
+			}
+		}
+		return best == null ? null : best.item;
+	}
+
+	/**
+	 * Returns the entry among the given best entry and those in the given
+	 * cell whose center is closest to the given location, and at most the
+	 * given distance away from it. Cells beyond the grid have no entries.
+	 */
+	private Entry<T> nearest(double x, double y, double maxDistance,
+			Entry<T> best, long cellX, long cellY) {
+		if (cellX < Integer.MIN_VALUE || cellX > Integer.MAX_VALUE
+				|| cellY < Integer.MIN_VALUE || cellY > Integer.MAX_VALUE) {
+			return best;
+		}
+		List<Entry<T>> cell = cells.get(key((int) cellX, (int) cellY));
+		if (cell == null) {
+			return best;
+		}
+		if (best != null) {
+			maxDistance = GUIUtils.distance(x, y, best.x, best.y);
+		}
+		for (int i = 0; i < cell.size(); i++) {
+			Entry<T> entry = cell.get(i);
+			double distance = GUIUtils.distance(x, y, entry.x, entry.y);
+			if (distance <= maxDistance) {
+				maxDistance = distance;
+				best = entry;
+			}
+		}
+		return best;
+	}
+
+	private T nearest(double x, double y, double maxDistance,
+			Collection<Entry<T>> candidates) {
+		T result = null;
+		for (Entry<T> entry : candidates) {
+			double distance = GUIUtils.distance(x, y, entry.x, entry.y);
+			if (distance <= maxDistance) {
+				maxDistance = distance;
+				result = entry.item;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Add all items whose circle intersects the given rectangle to the given
+	 * collection.
+	 */
+	public void findInRange(double minX, double minY, double maxX,
+			double maxY, Collection<? super T> result) {
+		double radius = getMaxRadius();
+		int minCellX = toCell(minX - radius);
+		int maxCellX = toCell(maxX + radius);
+		int minCellY = toCell(minY - radius);
+		int maxCellY = toCell(maxY + radius);
+		if (coversOccupiedCells(minCellX, minCellY, maxCellX, maxCellY)) {
+			for (Entry<T> entry : entries.values()) {
+				addIfIntersecting(entry, minX, minY, maxX, maxY, result);
+			}
+			return;
+		}
+		for (long cx = minCellX; cx <= maxCellX; cx++) {
+			for (long cy = minCellY; cy <= maxCellY; cy++) {
+				List<Entry<T>> cell = cells.get(key((int) cx, (int) cy));
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					addIfIntersecting(cell.get(i), minX, minY, maxX, maxY,
+							result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Whether the given block of cells holds more cells than there are
+	 * occupied cells, so that visiting all items is cheaper than visiting the
+	 * block
+	 */
+	private boolean coversOccupiedCells(int minCellX, int minCellY,
+			int maxCellX, int maxCellY) {
+		long width = (long) maxCellX - minCellX + 1;
+		long height = (long) maxCellY - minCellY + 1;
+		// the height is at most 2^32, so the product does not overflow once
+		// the width is known to be below 2^31
+		return width > cells.size() || width * height > cells.size();
+	}
+
+	private void addIfIntersecting(Entry<T> entry, double minX, double minY,
+			double maxX, double maxY, Collection<? super T> result) {
+		if (entry.x + entry.radius >= minX && entry.x - entry.radius <= maxX
+				&& entry.y + entry.radius >= minY
+				&& entry.y - entry.radius <= maxY) {
+			result.add(entry.item);
+		}
+	}
+
+	private void addToCell(long cell, Entry<T> entry) {
+		List<Entry<T>> list = cells.get(cell);
+		if (list == null) {
+			list = new ArrayList<Entry<T>>(4);
+			cells.put(cell, list);
+		}
+		list.add(entry);
+	}
+
+	private void removeFromCell(long cell, Entry<T> entry) {
+		List<Entry<T>> list = cells.get(cell);
+		list.remove(entry);
+		if (list.isEmpty()) {
+			cells.remove(cell);
+		}
+	}
+
+	private int toCell(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private long cellOf(double x, double y) {
+		return key(toCell(x), toCell(y));
+	}
+
+	private static long key(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xffffffffL);
+	}
+}
@@ -0,0 +1,95 @@
+package worms.gui.game;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import worms.model.IFacade;
+import worms.model.ModelException;
+import worms.model.Worm;
+
+/**
+ * Sampled jump trajectories of worms, kept until the state of the worm that
+ * determines its jump (location, direction, radius and action points)
+ * changes, so that frames in which worms do not change compute no
+ * trajectories.
+ */
+class TrajectoryCache {
+
+	private static class Entry {
+		private double x;
+		private double y;
+		private double direction;
+		private double radius;
+		private int actionPoints;
+		private double timeDistance;
+
+		// null if the worm cannot jump
+		private double[] trajectory;
+
+		private boolean matches(IFacade facade, Worm worm, double timeDistance) {
+			return x == facade.getX(worm) && y == facade.getY(worm)
+					&& direction == facade.getOrientation(worm)
+					&& radius == facade.getRadius(worm)
+					&& actionPoints == facade.getActionPoints(worm)
+					&& this.timeDistance == timeDistance;
+		}
+	}
+
+	private final IFacade facade;
+	private final Map<Worm, Entry> entries = new IdentityHashMap<Worm, Entry>();
+
+	TrajectoryCache(IFacade facade) {
+		this.facade = facade;
+	}
+
+	/**
+	 * Returns the trajectory of a jump of the given worm, sampled at (about)
+	 * the given time distance: the x and y coordinates of the i'th sample are
+	 * at indices 2*i and 2*i+1, for i from 0 up to and including the number
+	 * of intervals, which is (length / 2 - 1).
+	 *
+	 * The returned array must not be modified. Returns null if the worm
+	 * cannot jump, or if its jump would take no time.
+	 *
+	 * @param timeDistance
+	 *            (in worm-seconds)
+	 */
+	double[] getTrajectory(Worm worm, double timeDistance) {
+		Entry entry = entries.get(worm);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(worm, entry);
+		} else if (entry.matches(facade, worm, timeDistance)) {
+			return entry.trajectory;
+		}
+		entry.x = facade.getX(worm);
+		entry.y = facade.getY(worm);
+		entry.direction = facade.getOrientation(worm);
+		entry.radius = facade.getRadius(worm);
+		entry.actionPoints = facade.getActionPoints(worm);
+		entry.timeDistance = timeDistance;
+		entry.trajectory = computeTrajectory(worm, timeDistance,
+				entry.trajectory);
+		return entry.trajectory;
+	}
+
+	private double[] computeTrajectory(Worm worm, double timeDistance,
+			double[] previous) {
+		try {
+			double time = facade.getJumpTime(worm);
+			if (!(time > 0) || Double.isInfinite(time)) {
+				return null;
+			}
+			int n = 1 + (int) (time / timeDistance);
+			double[] result = previous;
+			if (result == null || result.length != 2 * (n + 1)) {
+				result = new double[2 * (n + 1)];
+			}
+			facade.fillJumpTrajectory(worm, n, result);
+			return result;
+		} catch (ModelException e) {
+			// cannot jump
+			return null;
+		}
+	}
+}
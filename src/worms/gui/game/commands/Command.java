@@ -2,6 +2,7 @@ package worms.gui.game.commands;
 
 import worms.gui.game.PlayGameScreen;
 import worms.model.IFacade;
+import worms.model.Worm;
 
 public abstract class Command {
 
@@ -12,19 +13,47 @@ public abstract class Command {
 	private boolean cancelled = false;
 	private boolean started = false;
 
+	/**
+	 * When this command was enqueued (System.nanoTime()); 0 if not recorded
+	 */
+	long enqueueTime;
+
 	protected Command(IFacade facade, PlayGameScreen screen) {
 		this.facade = facade;
 		this.screen = screen;
 	}
 
+	/**
+	 * The screen on which this command is shown; null if the command is
+	 * executed by a headless simulation
+	 */
 	protected PlayGameScreen getScreen() {
 		return screen;
 	}
 
+	protected boolean hasScreen() {
+		return screen != null;
+	}
+
+	/**
+	 * Show the given message on the screen, if any
+	 */
+	protected void addMessage(String message) {
+		if (hasScreen()) {
+			getScreen().addMessage(message);
+		}
+	}
+
 	protected IFacade getFacade() {
 		return facade;
 	}
 
+	/**
+	 * The worm this command acts on. Commands only modify their own worm;
+	 * commands for different worms may execute at the same time.
+	 */
+	public abstract Worm getWorm();
+
 	public final void startExecution() {
 		if (canExecute()) {
 			doStartExecution();
@@ -54,6 +83,15 @@ public abstract class Command {
 		return cancelled || (isStarted() && isDoneExecuting());
 	}
 
+	/**
+	 * Returns whether this command, while executing, has yet to change its
+	 * worm; such a command must be executed again from the start if its
+	 * execution is interrupted (e.g., when the game is saved).
+	 */
+	public boolean isEffectPending() {
+		return false;
+	}
+
 	protected abstract boolean isDoneExecuting();
 
 	protected abstract boolean canExecute();
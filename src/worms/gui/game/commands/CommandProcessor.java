@@ -1,36 +1,350 @@
 package worms.gui.game.commands;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import worms.gui.FrameMetrics;
+import worms.model.Worm;
+import worms.util.Histogram;
+import worms.util.MpscRingBuffer;
+
+/**
+ * Executes commands in a lane per worm: the commands for a worm are executed
+ * one after the other, in the order in which they were enqueued, but the
+ * commands for different worms are executed at the same time. Commands only
+ * modify their own worm, so commands for different worms never conflict.
+ *
+ * Commands may be enqueued on any thread (e.g., by AI players or network
+ * input) without locking; the queue is bounded, and what happens to
+ * commands that do not fit is determined by the overflow policy. The queue
+ * is only advanced, and commands are only executed, by a single thread (the
+ * thread that advances the game), which moves the enqueued commands to their
+ * lanes.
+ */
 public class CommandProcessor {
-	private Queue<Command> commandQueue = new LinkedList<Command>();
-	private Command executingCommand;
 
-	public void enqueueCommand(Command cmd) {
-		commandQueue.add(cmd);
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * What happens to a command that is enqueued while the queue is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * The command is not enqueued
+		 */
+		REJECT,
+
+		/**
+		 * The enqueueing thread waits until there is room for the command;
+		 * must not be used on the thread that advances the queue, which
+		 * would wait forever
+		 */
+		WAIT
+	}
+
+	/**
+	 * Time a waiting producer sleeps before trying again (in nanoseconds)
+	 */
+	private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private static class Lane {
+		private final Worm worm;
+		private final Queue<Command> waitingCommands = new ArrayDeque<Command>();
+		private Command executingCommand;
+
+		private Lane(Worm worm) {
+			this.worm = worm;
+		}
+
+		private boolean isIdle() {
+			return executingCommand == null && waitingCommands.isEmpty();
+		}
+	}
+
+	/**
+	 * Commands that have been enqueued but not yet moved to their lane
+	 */
+	private final MpscRingBuffer<Command> commandQueue;
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * The lanes of the worms that have commands, also in the order in which
+	 * they were created, so that lanes are advanced in a deterministic order
+	 */
+	private final Map<Worm, Lane> lanes = new IdentityHashMap<Worm, Lane>();
+	private final List<Lane> activeLanes = new ArrayList<Lane>();
+
+	/**
+	 * The number of commands in lanes that have not started executing
+	 */
+	private volatile int nbWaitingCommands;
+
+	private final AtomicLong nbRejectedCommands = new AtomicLong();
+
+	// false if latencies are not recorded
+	private volatile boolean recordingLatencies;
+
+	// null if not measured
+	private volatile FrameMetrics metrics;
+
+	// one histogram per producer thread, since histograms are not
+	// thread-safe
+	private final ThreadLocal<Histogram> enqueueLatencies = new ThreadLocal<Histogram>() {
+		@Override
+		protected Histogram initialValue() {
+			Histogram result = new Histogram();
+			allEnqueueLatencies.add(result);
+			return result;
+		}
+	};
+	private final List<Histogram> allEnqueueLatencies = new CopyOnWriteArrayList<Histogram>();
+	private final Histogram queueLatencies = new Histogram();
+
+	public CommandProcessor() {
+		this(DEFAULT_CAPACITY, OverflowPolicy.REJECT);
+	}
+
+	public CommandProcessor(int capacity, OverflowPolicy overflowPolicy) {
+		if (overflowPolicy == null) {
+			throw new NullPointerException("Overflow policy must not be null");
+		}
+		this.commandQueue = new MpscRingBuffer<Command>(capacity);
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public int getCapacity() {
+		return commandQueue.getCapacity();
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Enqueue the given command. May be called on any thread.
+	 *
+	 * @return whether the command was enqueued; always true if the overflow
+	 *         policy is WAIT
+	 */
+	public boolean enqueueCommand(Command cmd) {
+		if (!recordingLatencies && metrics == null) {
+			return offer(cmd);
+		}
+		long start = System.nanoTime();
+		cmd.enqueueTime = start;
+		boolean result = offer(cmd);
+		if (recordingLatencies) {
+			enqueueLatencies.get().record(System.nanoTime() - start);
+		}
+		return result;
+	}
+
+	private boolean offer(Command cmd) {
+		while (!commandQueue.offer(cmd)) {
+			if (overflowPolicy == OverflowPolicy.REJECT) {
+				nbRejectedCommands.incrementAndGet();
+				return false;
+			}
+			LockSupport.parkNanos(WAIT_NANOS);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether no command is executing or waiting to be executed
+	 */
+	public boolean isIdle() {
+		return activeLanes.isEmpty() && commandQueue.isEmpty();
+	}
+
+	/**
+	 * Returns the number of commands waiting to be executed, either in the
+	 * queue or in their lane
+	 */
+	public int getQueueLength() {
+		return commandQueue.size() + nbWaitingCommands;
 	}
 
-	private void startNextCommand() {
-		if (!commandQueue.isEmpty()) {
-			executingCommand = commandQueue.poll();
-			executingCommand.startExecution();
-		} else {
-			executingCommand = null;
+	/**
+	 * Returns the number of worms that have commands executing or waiting in
+	 * their lane. Must be called on the thread that advances the queue.
+	 */
+	public int getNbLanes() {
+		return activeLanes.size();
+	}
+
+	/**
+	 * Returns the number of commands that were not enqueued because the
+	 * queue was full
+	 */
+	public long getNbRejectedCommands() {
+		return nbRejectedCommands.get();
+	}
+
+	/**
+	 * Start or stop recording how long enqueueing takes, and how long
+	 * commands wait in the queue before they start executing.
+	 */
+	public void setRecordingLatencies(boolean recordingLatencies) {
+		this.recordingLatencies = recordingLatencies;
+	}
+
+	public boolean isRecordingLatencies() {
+		return recordingLatencies;
+	}
+
+	/**
+	 * Set the metrics in which the time each command waits before it starts
+	 * executing is recorded (as {@link FrameMetrics.Phase#WAIT}); null to stop
+	 * recording.
+	 */
+	public void setMetrics(FrameMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Durations (in nanoseconds) of the calls to enqueue a command, on all
+	 * threads. The result is only exact if no commands are being enqueued
+	 * meanwhile.
+	 */
+	public Histogram getEnqueueLatencies() {
+		Histogram result = new Histogram();
+		for (Histogram histogram : allEnqueueLatencies) {
+			result.add(histogram);
 		}
+		return result;
 	}
 
+	/**
+	 * Durations (in nanoseconds) between enqueueing commands and starting
+	 * their execution. Must be read on the thread that advances the queue.
+	 */
+	public Histogram getQueueLatencies() {
+		return queueLatencies;
+	}
+
+	/**
+	 * Advance all lanes by the given time.
+	 */
 	public void advanceCommandQueue(double timeDelta) {
-		if (executingCommand == null) {
-			startNextCommand();
-		}
-		if (executingCommand != null) {
-			executingCommand.update(timeDelta);
-			while (executingCommand != null
-					&& executingCommand.isFinished()) {
-				startNextCommand();
+		moveEnqueuedCommands(commandQueue.getCapacity());
+		int nbActive = 0;
+		for (int i = 0; i < activeLanes.size(); i++) {
+			Lane lane = activeLanes.get(i);
+			advanceLane(lane, timeDelta);
+			if (lane.isIdle()) {
+				lanes.remove(lane.worm);
+			} else {
+				activeLanes.set(nbActive++, lane);
+			}
+		}
+		for (int i = activeLanes.size() - 1; i >= nbActive; i--) {
+			activeLanes.remove(i);
+		}
+	}
+
+	/**
+	 * Move the enqueued commands to their lanes, as long as the lanes hold
+	 * fewer than the given number of commands. When advancing, the limit is
+	 * the capacity of the queue, so that the overflow policy applies to all
+	 * waiting commands.
+	 */
+	private void moveEnqueuedCommands(int limit) {
+		int nbWaiting = nbWaitingCommands;
+		while (nbWaiting < limit) {
+			Command cmd = commandQueue.poll();
+			if (cmd == null) {
+				break;
 			}
+			getLane(cmd.getWorm()).waitingCommands.add(cmd);
+			nbWaiting++;
+		}
+		nbWaitingCommands = nbWaiting;
+	}
+
+	/**
+	 * Returns the commands that have yet to change their worm, in an order
+	 * in which they can be executed: the waiting commands of each lane,
+	 * preceded by its executing command if the effect of that command is
+	 * pending. All enqueued commands are moved to their lanes first.
+	 *
+	 * Must be called on the thread that advances the queue.
+	 */
+	public List<Command> getPendingCommands() {
+		moveEnqueuedCommands(Integer.MAX_VALUE);
+		List<Command> result = new ArrayList<Command>();
+		for (Lane lane : activeLanes) {
+			if (lane.executingCommand != null
+					&& lane.executingCommand.isEffectPending()) {
+				result.add(lane.executingCommand);
+			}
+			result.addAll(lane.waitingCommands);
+		}
+		return result;
+	}
+
+	/**
+	 * Add the given command to the waiting commands of its lane, regardless
+	 * of the capacity of the queue (e.g., to restore a saved game).
+	 *
+	 * Must be called on the thread that advances the queue.
+	 */
+	public void addWaitingCommand(Command cmd) {
+		getLane(cmd.getWorm()).waitingCommands.add(cmd);
+		nbWaitingCommands++;
+	}
+
+	private Lane getLane(Worm worm) {
+		Lane lane = lanes.get(worm);
+		if (lane == null) {
+			lane = new Lane(worm);
+			lanes.put(worm, lane);
+			activeLanes.add(lane);
+		}
+		return lane;
+	}
+
+	private void advanceLane(Lane lane, double timeDelta) {
+		if (lane.executingCommand == null) {
+			startNextCommand(lane);
+		}
+		if (lane.executingCommand != null) {
+			lane.executingCommand.update(timeDelta);
+			while (lane.executingCommand != null
+					&& lane.executingCommand.isFinished()) {
+				startNextCommand(lane);
+			}
+		}
+	}
+
+	private void startNextCommand(Lane lane) {
+		Command cmd = lane.waitingCommands.poll();
+		lane.executingCommand = cmd;
+		if (cmd != null) {
+			nbWaitingCommands--;
+			if (cmd.enqueueTime != 0) {
+				recordWait(System.nanoTime() - cmd.enqueueTime);
+			}
+			cmd.startExecution();
+		}
+	}
+
+	private void recordWait(long nanos) {
+		if (recordingLatencies) {
+			queueLatencies.record(nanos);
+		}
+		FrameMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.record(FrameMetrics.Phase.WAIT, nanos);
 		}
 	}
 
-}
\ No newline at end of file
+}
@@ -9,12 +9,14 @@ import worms.model.Worm;
 public class Jump extends Command {
 	private final Worm worm;
 	private boolean finished = false;
+	private final double[] jumpStep = new double[2];
 
 	public Jump(IFacade facade, Worm worm, PlayGameScreen screen) {
 		super(facade, screen);
 		this.worm = worm;
 	}
 
+	@Override
 	public Worm getWorm() {
 		return worm;
 	}
@@ -31,7 +33,7 @@ public class Jump extends Command {
 	
 	@Override
 	protected void executionCancelled() {
-		getScreen().addMessage("This worm cannot jump :(");
+		addMessage("This worm cannot jump :(");
 	}
 
 	private double getTotalDuration() {
@@ -40,22 +42,28 @@ public class Jump extends Command {
 
 	@Override
 	protected void doUpdate(double dt) {
-		WormSprite sprite = getScreen().getWormSprite(getWorm());
-
 		try {
 			if (getElapsedTime() >= getTotalDuration()) {
-				getFacade().jump(worm);
 				finished = true;
+				if (!getFacade().tryJump(worm).isDone()) {
+					executionCancelled();
+					return;
+				}
+				if (!hasScreen()) {
+					return;
+				}
+				WormSprite sprite = getScreen().getWormSprite(getWorm());
 				double x = getScreen().getScreenX(getFacade().getX(getWorm()));
 				double y = getScreen().getScreenY(getFacade().getY(getWorm()));
 
-				sprite.setCenterLocation(x, y);
-			} else {
-				double[] xy = getFacade().getJumpStep(getWorm(),
-						getElapsedTime());
+				getScreen().moveWormSprite(sprite, x, y);
+			} else if (hasScreen()) {
+				WormSprite sprite = getScreen().getWormSprite(getWorm());
+				getFacade().fillJumpStep(getWorm(), getElapsedTime(), jumpStep);
 
-				sprite.setCenterLocation(getScreen().getScreenX(xy[0]),
-						getScreen().getScreenY(xy[1]));
+				getScreen().moveWormSprite(sprite,
+						getScreen().getScreenX(jumpStep[0]),
+						getScreen().getScreenY(jumpStep[1]));
 			}
 		} catch (ModelException e) {
 			finished = true;
@@ -67,4 +75,10 @@ public class Jump extends Command {
 	protected boolean isDoneExecuting() {
 		return finished;
 	}
+
+	@Override
+	public boolean isEffectPending() {
+		// the worm only jumps at the end
+		return !finished;
+	}
 }
\ No newline at end of file
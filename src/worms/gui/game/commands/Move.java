@@ -22,10 +22,15 @@ public class Move extends Command {
 		this.nbSteps = nbSteps;
 	}
 
+	@Override
 	public Worm getWorm() {
 		return worm;
 	}
 
+	public int getNbSteps() {
+		return nbSteps;
+	}
+
 	@Override
 	protected boolean canExecute() {
 		return worm != null && getFacade().canMove(worm, nbSteps);
@@ -37,15 +42,21 @@ public class Move extends Command {
 
 	@Override
 	protected void doUpdate(double dt) {
+		if (!hasScreen()) {
+			return;
+		}
 		WormSprite sprite = getScreen().getWormSprite(getWorm());
 		if (getElapsedTime() < getTotalDuration()) {
 			double t = getElapsedTime() / getTotalDuration();
 			t = t * t * (3 - 2 * t); // smooth-step interpolation
 			double x = (1.0 - t) * startX + t * finalX;
 			double y = (1.0 - t) * startY + t * finalY;
-			sprite.setCenterLocation(x, y);
+			getScreen().moveWormSprite(sprite, getScreen().getScreenX(x),
+					getScreen().getScreenY(y));
 		} else {
-			sprite.setCenterLocation(finalX, finalY);
+			getScreen().moveWormSprite(sprite,
+					getScreen().getScreenX(finalX),
+					getScreen().getScreenY(finalY));
 		}
 	}
 
@@ -56,15 +67,20 @@ public class Move extends Command {
 
 	@Override
 	protected void executionCancelled() {
-		getScreen().addMessage("This worm cannot move :(");
+		addMessage("This worm cannot move :(");
 	}
 
 	@Override
 	protected void doStartExecution() {
-		this.startX = getScreen().getScreenX(getFacade().getX(worm));
-		this.startY = getScreen().getScreenY(getFacade().getY(worm));
+		if (!hasScreen()) {
+			getFacade().move(worm, nbSteps);
+			return;
+		}
+		// world locations, so that the camera may change while moving
+		this.startX = getFacade().getX(worm);
+		this.startY = getFacade().getY(worm);
 		getFacade().move(worm, nbSteps);
-		this.finalX = getScreen().getScreenX(getFacade().getX(worm));
-		this.finalY = getScreen().getScreenY(getFacade().getY(worm));
+		this.finalX = getFacade().getX(worm);
+		this.finalY = getFacade().getY(worm);
 	}
 }
\ No newline at end of file
@@ -16,6 +16,15 @@ public class Rename extends InstantaneousCommand {
 		this.newName = newName;
 	}
 
+	@Override
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public String getNewName() {
+		return newName;
+	}
+
 	@Override
 	protected boolean canExecute() {
 		return worm != null;
@@ -24,10 +33,15 @@ public class Rename extends InstantaneousCommand {
 	@Override
 	protected void doStartExecution() {
 		try {
+			String oldName = getFacade().getName(worm);
 			getFacade().rename(worm, newName);
+			if (hasScreen()) {
+				getScreen().renameWormSprite(getScreen().getWormSprite(worm),
+						oldName);
+			}
 		} catch (ModelException e) {
 			// an invalid name
-			getScreen().addMessage("Invalid name: " + newName);
+			addMessage("Invalid name: " + newName);
 		}
 	}
 }
\ No newline at end of file
@@ -17,6 +17,15 @@ public class Resize extends InstantaneousCommand {
 		this.factor = factor;
 	}
 
+	@Override
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public double getFactor() {
+		return factor;
+	}
+
 	@Override
 	protected boolean canExecute() {
 		return worm != null;
@@ -27,13 +36,14 @@ public class Resize extends InstantaneousCommand {
 		try {
 			double newRadius = factor * getFacade().getRadius(worm);
 			getFacade().setRadius(worm, newRadius);
-			WormSprite sprite = getScreen().getWormSprite(worm);
-			sprite.setRadius(newRadius);
+			if (hasScreen()) {
+				WormSprite sprite = getScreen().getWormSprite(worm);
+				getScreen().resizeWormSprite(sprite, newRadius);
+			}
 		} catch (ModelException e) {
 			// an invalid radius
-			getScreen().addMessage(
-					"Cannot " + (factor > 1.0 ? "grow" : "shrink")
-							+ " that worm anymore :(");
+			addMessage("Cannot " + (factor > 1.0 ? "grow" : "shrink")
+					+ " that worm anymore :(");
 		}
 	}
 }
\ No newline at end of file
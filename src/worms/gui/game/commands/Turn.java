@@ -15,6 +15,15 @@ public class Turn extends InstantaneousCommand {
 		this.angle = angle;
 	}
 
+	@Override
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public double getAngle() {
+		return angle;
+	}
+
 	@Override
 	protected boolean canExecute() {
 		return getFacade().canTurn(worm, angle);
@@ -22,13 +31,16 @@ public class Turn extends InstantaneousCommand {
 	
 	@Override
 	protected void executionCancelled() {
-		getScreen().addMessage("This worm cannot perform that turn :(");
+		addMessage("This worm cannot perform that turn :(");
 	}
 	
 	@Override
 	protected void doStartExecution() {
 		getFacade().turn(worm, angle);
-		WormSprite sprite = getScreen().getWormSprite(worm);
-		sprite.setDirection(getFacade().getOrientation(worm));
+		if (hasScreen()) {
+			WormSprite sprite = getScreen().getWormSprite(worm);
+			getScreen().turnWormSprite(sprite,
+					getFacade().getOrientation(worm));
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package worms.gui.game.sprites;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * A process-wide cache of images, shared by all image sprites.
+ *
+ * Every image file is read and decoded only once. Scaled and flipped
+ * variants are created on demand and kept in a least-recently-used cache with
+ * a limit on the memory they take up. Scales are rounded to buckets of about
+ * 2%, so that sprites of almost the same size share a single variant.
+ */
+public class ImageCache {
+
+	/**
+	 * Default limit on the memory taken up by the cached variants (in bytes)
+	 */
+	public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+	/**
+	 * Ratio between the scales of two consecutive buckets
+	 */
+	private static final double SCALE_BUCKET_RATIO = 1.02;
+
+	/**
+	 * Fraction of the memory limit that a single variant may take up at most
+	 */
+	private static final int MAX_VARIANT_FRACTION = 4;
+
+	private static final ImageCache instance = new ImageCache(
+			DEFAULT_MEMORY_LIMIT);
+
+	public static ImageCache getInstance() {
+		return instance;
+	}
+
+	private static class Key {
+		private final String filename;
+		private final int scaleBucket;
+		private final boolean hflipped;
+
+		private Key(String filename, int scaleBucket, boolean hflipped) {
+			this.filename = filename;
+			this.scaleBucket = scaleBucket;
+			this.hflipped = hflipped;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return filename.equals(other.filename)
+					&& scaleBucket == other.scaleBucket
+					&& hflipped == other.hflipped;
+		}
+
+		@Override
+		public int hashCode() {
+			return (filename.hashCode() * 31 + scaleBucket) * 2
+					+ (hflipped ? 1 : 0);
+		}
+	}
+
+	private final Map<String, BufferedImage> originals = new HashMap<String, BufferedImage>();
+
+	// access-ordered, so that iteration starts at the least recently used
+	private final LinkedHashMap<Key, BufferedImage> variants = new LinkedHashMap<Key, BufferedImage>(
+			16, 0.75f, true);
+
+	private final long memoryLimit;
+	private long memoryUsed;
+
+	/**
+	 * @param memoryLimit
+	 *            (in bytes)
+	 */
+	public ImageCache(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+
+	/**
+	 * Returns the image in the given file, at its original scale.
+	 */
+	public synchronized BufferedImage getImage(String filename) {
+		BufferedImage result = originals.get(filename);
+		if (result == null) {
+			result = readImage(filename);
+			originals.put(filename, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the image in the given file, scaled by (approximately) the
+	 * given factor and horizontally flipped if requested.
+	 *
+	 * The scale is reduced so that the variant takes up at most a quarter of
+	 * the memory limit; the image is then smaller than requested.
+	 */
+	public synchronized BufferedImage getImage(String filename, double scale,
+			boolean hflipped) {
+		int bucket = Math.min(toBucket(scale), getMaxBucket(filename));
+		if (bucket == 0 && !hflipped) {
+			return getImage(filename);
+		}
+		Key key = new Key(filename, bucket, hflipped);
+		BufferedImage result = variants.get(key);
+		if (result == null) {
+			result = createVariant(filename, bucket, hflipped);
+			variants.put(key, result);
+			memoryUsed += sizeOf(result);
+			evict();
+		}
+		return result;
+	}
+
+	private BufferedImage createVariant(String filename, int bucket,
+			boolean hflipped) {
+		if (hflipped) {
+			return ImageSprite.hflip(getImage(filename, fromBucket(bucket),
+					false));
+		}
+		BufferedImage original = getImage(filename);
+		double scale = fromBucket(bucket);
+		int width = Math.max(1, (int) (scale * original.getWidth()));
+		int height = Math.max(1, (int) (scale * original.getHeight()));
+		return ImageSprite.toBufferedImage(original.getScaledInstance(width,
+				height, Image.SCALE_SMOOTH));
+	}
+
+	/**
+	 * The bucket of the largest scale at which a variant of the image in the
+	 * given file takes up at most a quarter of the memory limit
+	 */
+	private int getMaxBucket(String filename) {
+		BufferedImage original = getImage(filename);
+		double maxScale = Math.sqrt((double) memoryLimit / MAX_VARIANT_FRACTION
+				/ sizeOf(original));
+		return (int) Math.floor(Math.log(maxScale)
+				/ Math.log(SCALE_BUCKET_RATIO));
+	}
+
+	/**
+	 * Evict the least recently used variants until the memory limit is
+	 * respected; the most recently used variant is always kept.
+	 */
+	private void evict() {
+		Iterator<BufferedImage> it = variants.values().iterator();
+		while (memoryUsed > memoryLimit && variants.size() > 1) {
+			BufferedImage image = it.next();
+			memoryUsed -= sizeOf(image);
+			it.remove();
+		}
+	}
+
+	/**
+	 * Number of bytes taken up by the cached variants
+	 */
+	public synchronized long getMemoryUsed() {
+		return memoryUsed;
+	}
+
+	public synchronized int getNbVariants() {
+		return variants.size();
+	}
+
+	private static int toBucket(double scale) {
+		return (int) Math.round(Math.log(scale) / Math.log(SCALE_BUCKET_RATIO));
+	}
+
+	private static double fromBucket(int bucket) {
+		return Math.pow(SCALE_BUCKET_RATIO, bucket);
+	}
+
+	private static long sizeOf(BufferedImage image) {
+		// assume 4 bytes per pixel
+		return 4L * image.getWidth() * image.getHeight();
+	}
+
+	private static BufferedImage readImage(String filename) {
+		try {
+			return ImageIO.read(new File(filename));
+		} catch (IOException e) {
+			throw new RuntimeException(
+					"Could not read file '" + filename + "'", e);
+		}
+	}
+}
@@ -3,28 +3,25 @@ package worms.gui.game.sprites;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 public class ImageSprite extends Sprite {
 
-	// original image, at original scale
+	private final String filename;
+
+	// original image, at original scale; shared with other sprites
 	private final BufferedImage originalImage;
 
-	// only created when scale != 1.0
-	private BufferedImage scaledImage;
-	// only create when necessary
-	private BufferedImage scaledImageHflipped;
+	// image at the current scale and orientation, shared with other sprites;
+	// only looked up when necessary
+	private BufferedImage imageToDraw;
 
 	private boolean hflipped = false;
 
 	private double scale;
 
 	public ImageSprite(String filename) {
+		this.filename = filename;
 		this.originalImage = loadImage(filename);
-		this.scaledImage = originalImage;
 		this.scale = 1.0;
 	}
 
@@ -38,6 +35,21 @@ public class ImageSprite extends Sprite {
 		return getImageHeight() * scale;
 	}
 
+	/**
+	 * The width of the image that is actually drawn, which may differ
+	 * slightly from {@link #getWidth(Graphics2D)} (see {@link ImageCache})
+	 */
+	public int getDrawnWidth() {
+		return getImageToDraw().getWidth(null);
+	}
+
+	/**
+	 * The height of the image that is actually drawn
+	 */
+	public int getDrawnHeight() {
+		return getImageToDraw().getHeight(null);
+	}
+
 	public int getImageWidth() {
 		return originalImage.getWidth();
 	}
@@ -47,20 +59,9 @@ public class ImageSprite extends Sprite {
 	}
 
 	public void setScale(double scale) {
-		this.scale = scale;
-		if (scale != 1.0) {
-			this.scaledImage = toBufferedImage(originalImage.getScaledInstance(
-					(int) (scale * originalImage.getWidth()),
-					(int) (scale * originalImage.getHeight()),
-					Image.SCALE_SMOOTH));
-		} else {
-			this.scaledImage = originalImage;
-		}
-
-		if (isHflipped()) {
-			this.scaledImageHflipped = hflip(this.scaledImage);
-		} else {
-			this.scaledImageHflipped = null;
+		if (scale != this.scale) {
+			this.scale = scale;
+			this.imageToDraw = null;
 		}
 	}
 
@@ -69,27 +70,22 @@ public class ImageSprite extends Sprite {
 	}
 
 	protected Image getImageToDraw() {
-		Image imageToDraw = scaledImage;
-		if (isHflipped()) {
-			if (scaledImageHflipped == null) {
-				scaledImageHflipped = hflip(scaledImage);
-			}
-			imageToDraw = scaledImageHflipped;
+		if (imageToDraw == null) {
+			imageToDraw = ImageCache.getInstance().getImage(filename, scale,
+					isHflipped());
 		}
 		return imageToDraw;
 	}
 
 	protected BufferedImage loadImage(String filename) {
-		try {
-			return ImageIO.read(new File(filename));
-		} catch (IOException e) {
-			throw new RuntimeException(
-					"Could not read file '" + filename + "'", e);
-		}
+		return ImageCache.getInstance().getImage(filename);
 	}
 
 	public void setHflipped(boolean value) {
-		hflipped = value;
+		if (value != hflipped) {
+			hflipped = value;
+			imageToDraw = null;
+		}
 	}
 
 	public boolean isHflipped() {
@@ -123,8 +119,11 @@ public class ImageSprite extends Sprite {
 
 	@Override
 	public void draw(Graphics2D g) {
-		int x = (int) (getCenterX() - getWidth(g) / 2);
-		int y = (int) (getCenterY() - getHeight(g) / 2);
-		g.drawImage(getImageToDraw(), x, y, null);
+		// the cached image may be slightly larger or smaller than the exact
+		// scale, so center the image that is actually drawn
+		Image image = getImageToDraw();
+		int x = (int) (getCenterX() - image.getWidth(null) / 2.0);
+		int y = (int) (getCenterY() - image.getHeight(null) / 2.0);
+		g.drawImage(image, x, y, null);
 	}
 }
\ No newline at end of file
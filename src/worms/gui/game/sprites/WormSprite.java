@@ -7,6 +7,9 @@ public class WormSprite extends ImageSprite {
 
 	private final Worm worm;
 
+	private double radius = 1;
+	private double zoom = 1;
+
 	public WormSprite(Worm worm) {
 		super("images/worm.png");
 		this.worm = worm;
@@ -31,6 +34,20 @@ public class WormSprite extends ImageSprite {
 	 *            (in worm-meter)
 	 */
 	public void setRadius(double radius) {
+		this.radius = radius;
+		updateScale();
+	}
+
+	/**
+	 * @param zoom
+	 *            the zoom factor of the camera
+	 */
+	public void setZoom(double zoom) {
+		this.zoom = zoom;
+		updateScale();
+	}
+
+	private void updateScale() {
 		/*
 		 * Height of the image (when drawn at native size) in worm-meters, given
 		 * the scale at which the world is drawn to screen
@@ -45,9 +62,9 @@ public class WormSprite extends ImageSprite {
 
 		double scaleFactor = fitFactor * 2 * radius / imageHeightInMeters;
 
-		// limit scaling
-		scaleFactor = Math.max(0.1, Math.min(scaleFactor, 100));
-		
+		// limit scaling, including the zoom, so that the image size stays bounded
+		scaleFactor = Math.max(0.1, Math.min(scaleFactor * zoom, 100));
+
 		setScale(scaleFactor);
 	}
 }
@@ -1,5 +1,9 @@
 package worms.gui.menu;
 
+import java.io.File;
+import java.io.IOException;
+
+import worms.gui.CommandJournal;
 import worms.gui.GameState;
 import worms.gui.WormsGUI;
 import worms.gui.game.PlayGameScreen;
@@ -58,6 +62,15 @@ public class MainMenuScreen extends AbstractMenuScreen<MainMenuOption> {
 		WormsGUI gui = getGUI();
 		GameState gameState = new GameState(gui.getFacade(),
 				gui.getOptions().randomSeed, gui.getWidth(), gui.getHeight());
+		if (gui.getOptions().journalFile != null) {
+			try {
+				gameState.setJournal(new CommandJournal(new File(gui
+						.getOptions().journalFile), gameState));
+			} catch (IOException e) {
+				// play without recording
+				e.printStackTrace();
+			}
+		}
 
 		PlayGameScreen playGameScreen = PlayGameScreen.create(gui, gameState,
 				debugMode);
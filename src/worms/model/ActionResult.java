@@ -0,0 +1,39 @@
+package worms.model;
+
+/**
+ * The outcome of an action that a worm was asked to perform through one of
+ * the <code>try</code> methods of <code>IFacade</code>, which report
+ * ordinary failures as a result rather than by throwing an exception.
+ */
+public enum ActionResult {
+
+	/**
+	 * The worm performed the action.
+	 */
+	DONE,
+
+	/**
+	 * The action was not performed, because the worm does not have enough
+	 * action points for it.
+	 */
+	NOT_ENOUGH_ACTION_POINTS,
+
+	/**
+	 * The action was not performed, because the worm cannot jump in its
+	 * current direction.
+	 */
+	CANNOT_JUMP,
+
+	/**
+	 * The action was not performed, because its arguments are not valid for
+	 * any worm.
+	 */
+	INVALID_ARGUMENT;
+
+	/**
+	 * Check whether the action was performed.
+	 */
+	public boolean isDone() {
+		return this == DONE;
+	}
+}
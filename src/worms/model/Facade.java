@@ -1,5 +1,7 @@
 package worms.model;
 
+import java.util.Collection;
+
 public class Facade implements IFacade {
 
 	@Override
@@ -12,6 +14,16 @@ public class Facade implements IFacade {
 		}
 	}
 
+	@Override
+	public Worm restoreWorm(double x, double y, double direction, double radius, String name, int actionPoints) throws ModelException {
+		try{
+			return new Worm(name,radius,direction,x,y,actionPoints);
+		}
+		catch (Throwable exc){
+			throw new ModelException(exc.getMessage());
+		}
+	}
+
 	@Override
 	public boolean canMove(Worm worm, int nbSteps) throws ModelException {
 		try{
@@ -62,6 +74,26 @@ public class Facade implements IFacade {
 		return worm.jumpStep(t);
 	}
 
+	@Override
+	public void fillJumpStep(Worm worm, double t, double[] result) throws ModelException {
+		try{
+			worm.jumpStep(t, result);
+		}
+		catch (Throwable exc){
+			throw new ModelException(exc.getMessage());
+		}
+	}
+
+	@Override
+	public void fillJumpTrajectory(Worm worm, int nbIntervals, double[] result) throws ModelException {
+		try{
+			worm.jumpTrajectory(nbIntervals, result);
+		}
+		catch (Throwable exc){
+			throw new ModelException(exc.getMessage());
+		}
+	}
+
 	@Override
 	public double getX(Worm worm) {
 		return worm.getX();
@@ -127,4 +159,95 @@ public class Facade implements IFacade {
 		return worm.getMass();
 	}
 
+	@Override
+	public void fillStates(Collection<Worm> worms, double[] xs, double[] ys,
+			double[] orientations, double[] radii, int[] actionPoints,
+			int[] maxActionPoints) throws ModelException {
+		try{
+			int i = 0;
+			for (Worm worm : worms){
+				if (xs != null)
+					xs[i] = worm.getX();
+				if (ys != null)
+					ys[i] = worm.getY();
+				if (orientations != null)
+					orientations[i] = worm.getDirection();
+				if (radii != null)
+					radii[i] = worm.getRadius();
+				if (actionPoints != null)
+					actionPoints[i] = worm.getNumberOfActionPoints();
+				if (maxActionPoints != null)
+					maxActionPoints[i] = worm.getMaxNumberOfActionPoints();
+				i++;
+			}
+		}
+		catch (Throwable exc){
+			throw new ModelException(exc.getMessage());
+		}
+	}
+
+	@Override
+	public int moveAll(Collection<Worm> worms, int nbSteps) throws ModelException {
+		try{
+			int result = 0;
+			for (Worm worm : worms){
+				if (worm.canMove(nbSteps)){
+					worm.activeMove(nbSteps);
+					result++;
+				}
+			}
+			return result;
+		}
+		catch (Throwable exc){
+			throw new ModelException(exc.getMessage());
+		}
+	}
+
+	@Override
+	public int turnAll(Collection<Worm> worms, double angle) throws ModelException {
+		try{
+			int result = 0;
+			for (Worm worm : worms){
+				if (worm.canTurn(angle)){
+					worm.activeTurn(angle);
+					result++;
+				}
+			}
+			return result;
+		}
+		catch (Throwable exc){
+			throw new ModelException(exc.getMessage());
+		}
+	}
+
+	@Override
+	public ActionResult tryMove(Worm worm, int nbSteps) {
+		if ((worm == null) || !worm.isPossibleNumberOfSteps(nbSteps))
+			return ActionResult.INVALID_ARGUMENT;
+		if (!worm.canMove(nbSteps))
+			return ActionResult.NOT_ENOUGH_ACTION_POINTS;
+		worm.activeMove(nbSteps);
+		return ActionResult.DONE;
+	}
+
+	@Override
+	public ActionResult tryTurn(Worm worm, double angle) {
+		if ((worm == null) || Double.isNaN(angle) || Double.isInfinite(angle))
+			return ActionResult.INVALID_ARGUMENT;
+		if (!worm.canTurn(angle))
+			return ActionResult.NOT_ENOUGH_ACTION_POINTS;
+		worm.activeTurn(angle);
+		return ActionResult.DONE;
+	}
+
+	@Override
+	public ActionResult tryJump(Worm worm) {
+		if (worm == null)
+			return ActionResult.INVALID_ARGUMENT;
+		if (!worm.canJump())
+			return ActionResult.CANNOT_JUMP;
+		worm.jump();
+		return ActionResult.DONE;
+	}
+
 }
@@ -1,5 +1,7 @@
 package worms.model;
 
+import java.util.Collection;
+
 /**
  * Implement this interface to connect your code to the user interface.
  * 
@@ -65,6 +67,18 @@ public interface IFacade {
 	Worm createWorm(double x, double y, double direction, double radius,
 			String name);
 
+	/**
+	 * Create a new worm like {@link #createWorm(double, double, double, double, String)},
+	 * that has the given number of action points rather than the maximum
+	 * number (e.g., to restore a saved worm).
+	 * 
+	 * @param actionPoints
+	 * The number of action points of the new worm; limited to the range
+	 * from 0 up to the maximum number of action points of the new worm
+	 */
+	Worm restoreWorm(double x, double y, double direction, double radius,
+			String name, int actionPoints);
+
 	/**
 	 * Returns whether or not the given worm can move a given number of steps.
 	 */
@@ -106,6 +120,26 @@ public interface IFacade {
 	 */
 	double[] getJumpStep(Worm worm, double t);
 
+	/**
+	 * Stores the location on the jump trajectory of the given worm
+	 * after a time t in the given array, without allocating a new one.
+	 *
+	 * The first element of the given array is set to the x-coordinate and
+	 * the second element to the y-coordinate.
+	 */
+	void fillJumpStep(Worm worm, double t, double[] result);
+
+	/**
+	 * Stores the locations on the jump trajectory of the given worm at
+	 * the start and the end of each of nbIntervals equal parts of the jump
+	 * time in the given array, without allocating a new one.
+	 *
+	 * The given array must hold at least 2 * (nbIntervals + 1) elements; the
+	 * location at time i * getJumpTime(worm) / nbIntervals is stored at
+	 * index 2 * i (x-coordinate) and 2 * i + 1 (y-coordinate).
+	 */
+	void fillJumpTrajectory(Worm worm, int nbIntervals, double[] result);
+
 	/**
 	 * Returns the x-coordinate of the current location of the given worm.
 	 */
@@ -161,4 +195,62 @@ public interface IFacade {
 	 */
 	double getMass(Worm worm);
 
+	/**
+	 * Stores the state of each of the given worms that is needed to draw it
+	 * in the given arrays, at the position of the worm in the iteration
+	 * order of the given collection.
+	 *
+	 * Any of the arrays may be null, in which case that part of the state is
+	 * not stored; the other arrays must hold at least worms.size() elements.
+	 */
+	void fillStates(Collection<Worm> worms, double[] xs, double[] ys,
+			double[] orientations, double[] radii, int[] actionPoints,
+			int[] maxActionPoints);
+
+	/**
+	 * Moves each of the given worms that can move the given number of steps
+	 * by that number of steps; the other worms do not move.
+	 *
+	 * @return The number of worms that moved
+	 */
+	int moveAll(Collection<Worm> worms, int nbSteps);
+
+	/**
+	 * Turns each of the given worms that can turn by the given angle by that
+	 * angle; the other worms do not turn.
+	 *
+	 * @return The number of worms that turned
+	 */
+	int turnAll(Collection<Worm> worms, double angle);
+
+	/**
+	 * Moves the given worm by the given number of steps, if it can.
+	 *
+	 * Unlike move, this method does not throw an exception if the worm cannot
+	 * move or the number of steps is negative, so that it is cheap to try
+	 * many actions that may fail.
+	 *
+	 * @return DONE if the worm moved, NOT_ENOUGH_ACTION_POINTS if it cannot
+	 *         afford the steps, INVALID_ARGUMENT if the worm is null or the
+	 *         number of steps is negative
+	 */
+	ActionResult tryMove(Worm worm, int nbSteps);
+
+	/**
+	 * Turns the given worm by the given angle, if it can.
+	 *
+	 * @return DONE if the worm turned, NOT_ENOUGH_ACTION_POINTS if it cannot
+	 *         afford the turn, INVALID_ARGUMENT if the worm is null or the
+	 *         angle is not a finite number
+	 */
+	ActionResult tryTurn(Worm worm, double angle);
+
+	/**
+	 * Makes the given worm jump, if it can.
+	 *
+	 * @return DONE if the worm jumped, CANNOT_JUMP if it faces downwards,
+	 *         INVALID_ARGUMENT if the worm is null
+	 */
+	ActionResult tryJump(Worm worm);
+
 }
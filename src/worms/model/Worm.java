@@ -84,6 +84,32 @@ public class Worm {
 		setNumberOfActionPoints(this.getMaxNumberOfActionPoints());
 	}
 
+	/**
+	 * Initialize this new worm with given name, given x-coordinate, given y-coordinate,
+	 * given direction, given radius and given number of action points.
+	 * 
+	 * @param	name
+	 * 			The name of the worm.
+	 * @param 	x
+	 * 			The x-coordinate of the worm's position expressed in metres.
+	 * @param	y
+	 * 			The y-coordinate of the worm's position expressed in metres.
+	 * @param	direction
+	 * 			The direction towards which the worm faces expressed in radians.
+	 * @param	radius
+	 * 			The radius of the spherical body of the worm expressed in metres.
+	 * @param	numberOfActionPoints
+	 * 			The number of action points of the worm.
+	 * @effect	This new worm is initialized with the given name, radius, direction, x-coordinate and y-coordinate.
+	 * 		|	this(name, radius, direction, x, y)
+	 * @effect	The number of action points of this new worm is set to the given number of action points.
+	 * 		|	setNumberOfActionPoints(numberOfActionPoints)
+	 */
+	public Worm (String name, double radius, double direction, double x, double y, int numberOfActionPoints) throws IllegalArgumentException {
+		this(name, radius, direction, x, y);
+		setNumberOfActionPoints(numberOfActionPoints);
+	}
+
 	/**
 	 * Return the name of the worm.
 	 * 	The name expresses the alphabetic identification of the worm.
@@ -104,8 +130,19 @@ public class Worm {
 	 */
 	@Model
 	private static boolean isPossibleName(String name) {
-		return name.matches("[A-Z]"+"[A-Za-z\"\' ]+");
-	}	
+		// equivalent to the regular expression, without compiling and matching it
+		if (name.length() < 2)
+			return false;
+		char first = name.charAt(0);
+		if (first < 'A' || first > 'Z')
+			return false;
+		for (int i = 1; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (!(('A' <= c && c <= 'Z') || ('a' <= c && c <= 'z') || c == '"' || c == '\'' || c == ' '))
+				return false;
+		}
+		return true;
+	}
 	
 	/**
 	 * Set the name of this worm to the given name
@@ -223,6 +260,9 @@ public class Worm {
 	 * @post	The new direction of this worm is similar to the given direction 
 	 * 			and is equal to its smallest representative angle that lies between zero and 2*pi, excluding the latter.
 	 * 		|	new.getDirection() == convertToRepresentativeAngle(direction)
+	 * @post	The registered cosinus, sinus and cost of a step match the new direction of this worm.
+	 * 		|	new.cosDirection == Math.cos(new.getDirection()) && new.sinDirection == Math.sin(new.getDirection())
+	 * 		|	new.stepCost == ceil(|new.cosDirection|+|4*new.sinDirection|)
 	 * @throws	IllegalArgumentException("Invalid number!")
 	 * 			This worm cannot have the given number as its direction.
 	 * 		|	! isPossibleNumber(direction)
@@ -231,6 +271,25 @@ public class Worm {
 		if (!isPossibleNumber(direction))
 			throw new IllegalArgumentException("Invalid number!");
 		this.direction = convertToRepresentativeAngle(direction);
+		cosDirection = Math.cos(this.direction);
+		sinDirection = Math.sin(this.direction);
+		stepCost = amountOfActionPointsForStep(cosDirection, sinDirection);
+		invalidateJumpValues();
+	}
+
+	/**
+	 * Return the amount of action points any worm has to pay for a single step in the direction with the given cosinus and sinus.
+	 *
+	 * @param	cos
+	 * 			The cosinus of the direction of the step.
+	 * @param	sin
+	 * 			The sinus of the direction of the step.
+	 * @return	The amount of action points equals the weighted direction, rounded up.
+	 * 		|	result == ceil(|cos|+|4*sin|)
+	 */
+	@Model
+	static int amountOfActionPointsForStep(double cos, double sin){
+		return (int) Math.ceil(Math.abs(cos) + Math.abs(4 * sin));
 	}
 
 	/**
@@ -242,11 +301,14 @@ public class Worm {
 	 * 		|	angle = result + (constant * 2 * pi)
 	 * 		|	0 <= result < (2 * pi)
 	 */	
-	private double convertToRepresentativeAngle(double angle){
-		while(angle < 0){
+	@Model
+	static double convertToRepresentativeAngle(double angle){
+		// a remainder instead of repeated additions, so that angles far below zero take no longer to convert
+		angle = angle % (2 * Math.PI);
+		if (angle < 0)
 			angle += 2 * Math.PI;
-		}
-		return (angle % (2 * Math.PI));
+		// adding two times pi to a tiny negative remainder may round up to two times pi itself
+		return (angle < 2 * Math.PI) ? angle : 0;
 	}
 	
 	/**
@@ -254,6 +316,17 @@ public class Worm {
 	 */
 	private double direction;
 
+	/**
+	 * Variables registering the cosinus and the sinus of the direction of this worm,
+	 * which only change when its direction does.
+	 */
+	private double cosDirection, sinDirection;
+
+	/**
+	 * Variable registering the amount of action points this worm has to pay for a single step in its direction.
+	 */
+	private int stepCost;
+
 	/**
 	 * Return the radius of the worm.
 	 * 	The radius expresses the radius of the spherical body of the worm.
@@ -292,6 +365,8 @@ public class Worm {
 	 * 			The new radius of this worm.
 	 * @post	The new radius of this worm is equal to the given radius.
 	 * 		|	new.getRadius() == radius
+	 * @post	The new mass of this worm is the mass of a worm with the given radius.
+	 * 		|	new.getMass() == (1062 * (4 / 3) * Math.PI * Math.pow(radius, 3))
 	 * @throws 	IllegalArgumentException("Invalid radius!")
 	 * 			The given radius is not a possible radius for any worm.
 	 * 		|	! isPossibleRadius(radius)
@@ -299,7 +374,39 @@ public class Worm {
 	public void setRadius(double radius) throws IllegalArgumentException {
 		if (!isPossibleRadius(radius))
 			throw new IllegalArgumentException("Invalid radius!");
-		else this.radius = radius;
+		else {
+			this.radius = radius;
+			this.mass = mass(radius);
+			this.maxNumberOfActionPoints = maxNumberOfActionPoints(this.mass);
+			invalidateJumpValues();
+		}
+	}
+
+	/**
+	 * Return the mass of any worm with the given radius.
+	 *
+	 * @param	radius
+	 * 			The radius of the worm.
+	 * @return	The mass of a worm with the given radius.
+	 * 		|	result == (1062 * (4 / 3) * Math.PI * Math.pow(radius, 3))
+	 */
+	@Model
+	static double mass(double radius){
+		double p = 1062;
+		return ((p * 4 * Math.PI * Math.pow(radius, 3)) / 3);
+	}
+
+	/**
+	 * Return the maximum number of action points of any worm with the given mass.
+	 *
+	 * @param	mass
+	 * 			The mass of the worm.
+	 * @return	The maximum number of action points equals the rounded mass.
+	 * 		|	result == Math.round(mass)
+	 */
+	@Model
+	static int maxNumberOfActionPoints(double mass){
+		return (int) Math.round(mass);
 	}
 
 	/**
@@ -307,18 +414,19 @@ public class Worm {
 	 * @return 	Mass of the worm based on calculations involving the radius of the worm.
 	 * 		|	result == (1062 * (4 / 3) * Math.PI * Math.pow(radius, 3))
 	 */
+	@Basic
 	public double getMass() {
-		double p = 1062;
-		return ((p * 4 * Math.PI * Math.pow(radius, 3)) / 3);
+		return mass;
 	}
 
 	/**
 	 * Return the maximum number of action points of the worm.
 	 * @return	Maximum number of action points of the worm based on calculations involving the mass of the worm.
+	 * 		|	result == Math.round(getMass())
 	 */
 	@Raw
 	public int getMaxNumberOfActionPoints(){
-		return (int) Math.round(this.getMass());
+		return maxNumberOfActionPoints;
 	}	
 
 	/**
@@ -326,6 +434,16 @@ public class Worm {
 	 */
 	private double radius;
 
+	/**
+	 * Variable registering the mass of this worm, derived from its radius.
+	 */
+	private double mass;
+
+	/**
+	 * Variable registering the maximum number of action points of this worm, derived from its mass.
+	 */
+	private int maxNumberOfActionPoints;
+
 	/**
 	 * Variable registering the lower bound of the radius.
 	 */	
@@ -360,6 +478,7 @@ public class Worm {
 		else if(numberOfActionPoints > this.getMaxNumberOfActionPoints())
 			numberOfActionPoints = this.getMaxNumberOfActionPoints();
 		this.numberOfActionPoints = numberOfActionPoints;
+		invalidateJumpValues();
 	}
 	
 	/**
@@ -375,8 +494,7 @@ public class Worm {
 	 * @return	True if and only if the given number of steps is not smaller than zero.
 	 * 		|	result == (numberOfSteps >= 0)
 	 */
-	@Model
-	private boolean isPossibleNumberOfSteps(int numberOfSteps){
+	public boolean isPossibleNumberOfSteps(int numberOfSteps){
 		return numberOfSteps >= 0;
 	}
 
@@ -392,15 +510,11 @@ public class Worm {
 	 * 		|	! isPossibleNumberOfSteps(numberOfSteps)
 	 */
 	@Model
-	private int amountOfActionPointsForMoving(int numberOfSteps ) throws IllegalArgumentException {
+	private long amountOfActionPointsForMoving(int numberOfSteps ) throws IllegalArgumentException {
 		if (!isPossibleNumberOfSteps(numberOfSteps)) 
 			throw new IllegalArgumentException("Invalid number of steps!");
-		else {
-			double horizontalComponent = Math.abs(Math.cos(direction));
-			double verticalComponent = Math.abs(4 * Math.sin(direction));
-			int decrement = (int) Math.ceil(horizontalComponent + verticalComponent);
-			return (numberOfSteps * decrement);
-		}
+		// in long, so that the cost of many steps does not overflow to an affordable one
+		else return ((long) numberOfSteps * stepCost);
 	}
 
 	/**
@@ -438,8 +552,8 @@ public class Worm {
 		if (!isPossibleNumberOfSteps(numberOfSteps)) 
 			throw new IllegalArgumentException("Invalid number of steps!");
 		else {
-			double incrementX = Math.cos(direction) * radius;
-			double incrementY = Math.sin(direction) * radius;
+			double incrementX = cosDirection * radius;
+			double incrementY = sinDirection * radius;
 			double newX = x + (numberOfSteps * incrementX);
 			double newY = y + (numberOfSteps * incrementY);
 			setX(newX);
@@ -470,7 +584,7 @@ public class Worm {
 			throw new UnsupportedOperationException("Cannot move!");
 		else {
 			move(numberOfSteps);
-			setNumberOfActionPoints(numberOfActionPoints - amountOfActionPointsForMoving(numberOfSteps));
+			setNumberOfActionPoints(numberOfActionPoints - (int) amountOfActionPointsForMoving(numberOfSteps));
 		}
 	}
 		
@@ -488,15 +602,51 @@ public class Worm {
 	 * 		|	else effectiveAngle == convertToRepresentativeAngle(turnByAngle)
 	 */
 	@Model
-	private int amountOfActionPointsForTurning(double turnByAngle){
+	static int amountOfActionPointsForTurning(double turnByAngle){
 		double effectiveAngle = convertToRepresentativeAngle(turnByAngle);
 		if(effectiveAngle > Math.PI)
 			effectiveAngle = (2 * Math.PI) - effectiveAngle;
-		double factor = (2 * Math.PI) / effectiveAngle;
-		int decrement = (int) Math.ceil(60 / factor);
+		int decrement = turningCosts[(int) (effectiveAngle * turningCostsPerRadian)];
+		if (decrement < 0)
+			decrement = amountOfActionPointsForTurningBy(effectiveAngle);
 		return decrement;
 	}
 
+	/**
+	 * Return the amount of action points any worm has to pay to turn by the given effective angle.
+	 *
+	 * @param	effectiveAngle
+	 * 			The angle by which to turn, between zero and pi.
+	 * @return	The amount of action points is equal to the quotient of 60 and a factor that is calculated by dividing 2 times pi by the effective angle.
+	 * 		|	result == ceil(60 / ((2*pi)/effectiveAngle))
+	 */
+	@Model
+	private static int amountOfActionPointsForTurningBy(double effectiveAngle){
+		double factor = (2 * Math.PI) / effectiveAngle;
+		return (int) Math.ceil(60 / factor);
+	}
+
+	/**
+	 * Constant registering the number of slots per radian of the table of turning costs.
+	 */
+	private static final double turningCostsPerRadian = 1024 / Math.PI;
+
+	/**
+	 * Constant registering the amount of action points to turn by the effective angles in each slot of 1/turningCostsPerRadian radians,
+	 * or -1 for the slots in which the amount is not the same for all angles and has to be computed.
+	 * Since the amount does not decrease as the angle grows, it is the same for all angles in a slot
+	 * if it is the same at some distance before and after the slot, which makes up for rounding errors in selecting the slot.
+	 */
+	private static final int[] turningCosts = new int[1025];
+
+	static {
+		for (int i = 0; i < turningCosts.length; i++) {
+			int first = amountOfActionPointsForTurningBy(Math.max(0, i - 0.5) / turningCostsPerRadian);
+			int last = amountOfActionPointsForTurningBy(Math.min(Math.PI, (i + 1.5) / turningCostsPerRadian));
+			turningCosts[i] = (first == last) ? first : -1;
+		}
+	}
+
 	/**
 	 * Check whether the worm can turn by the given angle.
 	 * 
@@ -553,8 +703,9 @@ public class Worm {
 	 */
 	@Model
 	private double initialVelocity(){
-		double force = (5 * numberOfActionPoints) + (getMass() * standardAcceleration);
-		return ((force / getMass()) * 0.5);
+		if (! jumpValuesAreValid)
+			computeJumpValues();
+		return initialVelocity;
 	}
 	
 	/**
@@ -565,7 +716,9 @@ public class Worm {
 	 */	
 	@Model
 	private double horizontalJumpDistance(){
-		return ((Math.pow(initialVelocity(), 2) * Math.sin(direction * 2)) / standardAcceleration);
+		if (! jumpValuesAreValid)
+			computeJumpValues();
+		return horizontalJumpDistance;
 	}
 	
 	/**
@@ -575,8 +728,117 @@ public class Worm {
 	 * 		|	result == horizontalJumpDistance() / (initialVelocity() * Math.cos(direction))
 	 */	
 	public double jumpTime(){
-		return (horizontalJumpDistance() / (initialVelocity() * Math.cos(direction)));
+		if (! jumpValuesAreValid)
+			computeJumpValues();
+		return jumpTime;
+	}
+
+	/**
+	 * Compute the initial velocity, the horizontal jump distance and the jump time of this worm
+	 * from its current mass, number of action points and direction.
+	 *
+	 * @post	The registered jump values of this worm are valid.
+	 * 		|	new.jumpValuesAreValid
+	 * @post	The registered initial velocity equals the quotient of a certain force and the worm's mass, divided by two.
+	 * 		|	new.initialVelocity == (((5 * numberOfActionPoints) + (getMass() * standardAcceleration)) / getMass()) * 0.5
+	 * @post	The registered horizontal jump distance equals the product of the squared initial velocity, the sinus of the doubled direction
+	 * 			and the inverse of Earth's standard acceleration coefficient.
+	 * 		|	new.horizontalJumpDistance == (new.initialVelocity^2 * sin(direction * 2)) / standardAcceleration
+	 * @post	The registered jump time equals the quotient of the horizontal jump distance and the product of the initial velocity and the cosinus of the direction.
+	 * 		|	new.jumpTime == new.horizontalJumpDistance / (new.initialVelocity * Math.cos(direction))
+	 */
+	@Model
+	private void computeJumpValues(){
+		initialVelocity = initialVelocity(getMass(), numberOfActionPoints);
+		horizontalJumpDistance = horizontalJumpDistance(initialVelocity, direction);
+		jumpTime = (horizontalJumpDistance / (initialVelocity * cosDirection));
+		jumpValuesAreValid = true;
+	}
+
+	/**
+	 * Return the initial velocity during a jump of any worm with the given mass and number of action points.
+	 *
+	 * @param	mass
+	 * 			The mass of the worm.
+	 * @param	numberOfActionPoints
+	 * 			The number of action points of the worm.
+	 * @return	The initial velocity equals the quotient of a certain force and the given mass, divided by two.
+	 * 		|	result == (((5 * numberOfActionPoints) + (mass * standardAcceleration)) / mass) * 0.5
+	 */
+	@Model
+	static double initialVelocity(double mass, int numberOfActionPoints){
+		double force = (5 * numberOfActionPoints) + (mass * standardAcceleration);
+		return ((force / mass) * 0.5);
+	}
+
+	/**
+	 * Return the horizontal distance covered during a jump with the given initial velocity in the given direction.
+	 *
+	 * @param	initialVelocity
+	 * 			The initial velocity of the jump.
+	 * @param	direction
+	 * 			The direction of the jump.
+	 * @return	The horizontal jumping distance is equal to the product of the squared initial velocity, the sinus of the doubled direction
+	 * 			and the inverse of Earth's standard acceleration coefficient.
+	 * 		|	result == (initialVelocity^2 * sin(direction * 2)) / standardAcceleration
+	 */
+	@Model
+	static double horizontalJumpDistance(double initialVelocity, double direction){
+		return ((Math.pow(initialVelocity, 2) * Math.sin(direction * 2)) / standardAcceleration);
+	}
+
+	/**
+	 * Return the distance by which the x-coordinate of any worm with the given mass, number of action points and direction changes when it jumps.
+	 *
+	 * @param	mass
+	 * 			The mass of the worm.
+	 * @param	numberOfActionPoints
+	 * 			The number of action points of the worm.
+	 * @param	direction
+	 * 			The direction of the worm.
+	 * @return	The distance traveled on the x-axis during the time of the jump, computed exactly as by jump().
+	 * 		|	result == initialVelocity(mass, numberOfActionPoints) * Math.cos(direction) * jumpTime
+	 * 		|	jumpTime == horizontalJumpDistance(initialVelocity(mass, numberOfActionPoints), direction)
+	 * 		|		/ (initialVelocity(mass, numberOfActionPoints) * Math.cos(direction))
+	 */
+	@Model
+	static double jumpDistance(double mass, int numberOfActionPoints, double direction){
+		double velocity = initialVelocity(mass, numberOfActionPoints);
+		double cos = Math.cos(direction);
+		double time = (horizontalJumpDistance(velocity, direction) / (velocity * cos));
+		return (velocity * cos * time);
+	}
+
+	/**
+	 * Mark the registered jump values of this worm as outdated, so that they are computed again when needed.
+	 *
+	 * @post	The registered jump values of this worm are not valid.
+	 * 		|	! new.jumpValuesAreValid
+	 */
+	@Model
+	private void invalidateJumpValues(){
+		jumpValuesAreValid = false;
 	}
+
+	/**
+	 * Variable registering whether the registered jump values of this worm match its current state.
+	 */
+	private boolean jumpValuesAreValid;
+
+	/**
+	 * Variable registering the initial velocity of this worm during a jump.
+	 */
+	private double initialVelocity;
+
+	/**
+	 * Variable registering the horizontal distance covered by this worm during a jump.
+	 */
+	private double horizontalJumpDistance;
+
+	/**
+	 * Variable registering the time a jump of this worm takes.
+	 */
+	private double jumpTime;
 	
 	/**
 	 * Return the x-coordinate of this worm during a jump after the given amount of time that has already passed.
@@ -587,7 +849,7 @@ public class Worm {
 	 */	
 	@Model
 	private double jumpStepOnXAxis(double timePassed){
-		return (x + (initialVelocity() * Math.cos(direction) * timePassed));
+		return (x + (initialVelocity() * cosDirection * timePassed));
 	}
 	
 	/**
@@ -600,7 +862,7 @@ public class Worm {
 	 */		
 	@Model
 	private double jumpStepOnYAxis(double timePassed){
-		return (y + ((initialVelocity() * Math.sin(direction) * timePassed) - ((0.5) * standardAcceleration * Math.pow(timePassed, 2))));
+		return (y + ((initialVelocity() * sinDirection * timePassed) - ((0.5) * standardAcceleration * Math.pow(timePassed, 2))));
 	}	
 	
 	/**
@@ -612,18 +874,100 @@ public class Worm {
 	 * 		|	result[1] == jumpStepOnYAxis(timePassed)
 	 */	
 	public double[] jumpStep(double timePassed){
-		double [] coordinatesAfterJumpStep = {jumpStepOnXAxis(timePassed),jumpStepOnYAxis(timePassed)};
+		double [] coordinatesAfterJumpStep = new double[2];
+		jumpStep(timePassed, coordinatesAfterJumpStep);
 		return coordinatesAfterJumpStep;
 	}
-	
+
+	/**
+	 * Store the coordinates of this worm during a jump after the given amount of time that has already passed in the given array.
+	 *
+	 * @param	timePassed
+	 * 			The time that has passed since the start of the jump.
+	 * @param	result
+	 * 			The array in which the coordinates are stored.
+	 * @post	The first two elements of the given array are the in-jump x-coordinate and y-coordinate of this worm respectively.
+	 * 		|	new result[0] == jumpStepOnXAxis(timePassed)
+	 * 		|	new result[1] == jumpStepOnYAxis(timePassed)
+	 * @throws	IllegalArgumentException("Invalid buffer!")
+	 * 			The given array cannot hold two coordinates.
+	 * 		|	! isPossibleBuffer(result, 2)
+	 */
+	public void jumpStep(double timePassed, double[] result) throws IllegalArgumentException {
+		if (! isPossibleBuffer(result, 2))
+			throw new IllegalArgumentException("Invalid buffer!");
+		result[0] = jumpStepOnXAxis(timePassed);
+		result[1] = jumpStepOnYAxis(timePassed);
+	}
+
+	/**
+	 * Store the coordinates of this worm at evenly spaced moments during a jump in the given array.
+	 *
+	 * @param	numberOfIntervals
+	 * 			The number of intervals in which the time of the jump is divided.
+	 * @param	result
+	 * 			The array in which the coordinates are stored.
+	 * @post	The given array contains the in-jump x-coordinate and y-coordinate of this worm
+	 * 			at the start of the jump, at the end of the jump and at the end of each interval in between, in that order.
+	 * 		|	for each i in 0..numberOfIntervals:
+	 * 		|		new result[2*i] == jumpStepOnXAxis(i * jumpTime() / numberOfIntervals)
+	 * 		|		new result[2*i + 1] == jumpStepOnYAxis(i * jumpTime() / numberOfIntervals)
+	 * @throws	IllegalArgumentException("Invalid number of intervals!")
+	 * 			The given number of intervals is smaller than one.
+	 * 		|	numberOfIntervals < 1
+	 * @throws	IllegalArgumentException("Invalid buffer!")
+	 * 			The given array cannot hold the coordinates of all moments.
+	 * 		|	! isPossibleBuffer(result, 2 * (numberOfIntervals + 1))
+	 */
+	public void jumpTrajectory(int numberOfIntervals, double[] result) throws IllegalArgumentException {
+		if (numberOfIntervals < 1)
+			throw new IllegalArgumentException("Invalid number of intervals!");
+		// in long, so that the number of coordinates of many intervals does not overflow
+		if (! isPossibleBuffer(result, 2 * (numberOfIntervals + 1L)))
+			throw new IllegalArgumentException("Invalid buffer!");
+		double time = jumpTime();
+		for (int i = 0; i <= numberOfIntervals; i++) {
+			double timePassed = i * time / numberOfIntervals;
+			result[2 * i] = jumpStepOnXAxis(timePassed);
+			result[2 * i + 1] = jumpStepOnYAxis(timePassed);
+		}
+	}
+
+	/**
+	 * Check whether the given array is a possible buffer for the given number of coordinates.
+	 *
+	 * @param	buffer
+	 * 			The array to check.
+	 * @param	numberOfCoordinates
+	 * 			The number of coordinates the array must be able to hold.
+	 * @return	True if and only if the given array is effective and can hold the given number of coordinates.
+	 * 		|	result == ((buffer != null) && (buffer.length >= numberOfCoordinates))
+	 */
+	@Model
+	private static boolean isPossibleBuffer(double[] buffer, long numberOfCoordinates) {
+		return (buffer != null) && (buffer.length >= numberOfCoordinates);
+	}
+
 	/**
 	 * Check whether the worm can jump.
 	 * 
 	 * @return	True if and only if the direction of this worm is not greater than pi.
 	 * 		|	result == (direction <= Math.PI)
 	 */	
+	public boolean canJump(){
+		return isPossibleJumpDirection(direction);
+	}
+
+	/**
+	 * Check whether any worm can jump in the given direction.
+	 *
+	 * @param	direction
+	 * 			The direction to check.
+	 * @return	True if and only if the given direction is not greater than pi.
+	 * 		|	result == (direction <= Math.PI)
+	 */
 	@Model
-	private boolean canJump(){
+	static boolean isPossibleJumpDirection(double direction){
 		return Util.fuzzyLessThanOrEqualTo(direction, Math.PI);
 	}
 	
@@ -652,5 +996,5 @@ public class Worm {
 	/**
 	 * Constant representing the approximated value of Earth's standard acceleration coefficient.
 	 */	
-	private final double standardAcceleration = 9.80665;
+	private static final double standardAcceleration = 9.80665;
 }
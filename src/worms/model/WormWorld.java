@@ -0,0 +1,500 @@
+package worms.model;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ *
+ * A class of worlds storing large populations of worms in parallel arrays,
+ * one array per property, and offering operations on all worms at once.
+ *
+ * The worms in a world are identified by their index, in order of addition.
+ * Their properties and the effects of moving, turning and jumping are the same
+ * as those of the class of worms.
+ *
+ * @Invar	Each worm in this world has a valid index.
+ * 		|	for each index in 0..getNumberOfWorms()-1: isValidIndex(index)
+ * @Invar	The number of action points of each worm in this world is not negative and not greater than its maximum number of action points.
+ * 		|	for each index in 0..getNumberOfWorms()-1: 0 <= getNumberOfActionPoints(index) <= getMaxNumberOfActionPoints(index)
+ *
+ * @version 1.0
+ * @author Jonas Thys & Jeroen Reinenbergh
+ *
+ */
+
+public class WormWorld {
+
+	/**
+	 * Initialize this new world without worms and with the given initial capacity.
+	 *
+	 * @param	initialCapacity
+	 * 			The number of worms this world can hold before its arrays have to grow.
+	 * @post	The new world does not contain any worms.
+	 * 		|	new.getNumberOfWorms() == 0
+	 * @throws	IllegalArgumentException("Invalid capacity!")
+	 * 			The given capacity is negative.
+	 * 		|	initialCapacity < 0
+	 */
+	public WormWorld(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("Invalid capacity!");
+		names = new String[initialCapacity];
+		xs = new double[initialCapacity];
+		ys = new double[initialCapacity];
+		directions = new double[initialCapacity];
+		radii = new double[initialCapacity];
+		actionPoints = new int[initialCapacity];
+		stepXs = new double[initialCapacity];
+		stepYs = new double[initialCapacity];
+		stepCosts = new int[initialCapacity];
+	}
+
+	/**
+	 * Initialize this new world without worms and with a default initial capacity.
+	 *
+	 * @effect	This new world is initialized with a capacity of 16 worms.
+	 * 		|	this(16)
+	 */
+	public WormWorld() {
+		this(16);
+	}
+
+	/**
+	 * Return the number of worms in this world.
+	 */
+	@Basic
+	public int getNumberOfWorms() {
+		return size;
+	}
+
+	/**
+	 * Check whether the given index is the index of a worm in this world.
+	 *
+	 * @param	index
+	 * 			The index to check.
+	 * @return	True if and only if the given index is not negative and smaller than the number of worms in this world.
+	 * 		|	result == ((index >= 0) && (index < getNumberOfWorms()))
+	 */
+	public boolean isValidIndex(int index) {
+		return (index >= 0) && (index < size);
+	}
+
+	/**
+	 * Add a worm with the same name, position, direction, radius and current number of action points as the given worm to this world.
+	 *
+	 * @param	worm
+	 * 			The worm whose state is copied into this world.
+	 * @return	The index of the added worm.
+	 * 		|	result == this.getNumberOfWorms()
+	 * @post	The number of worms in this world is incremented by one.
+	 * 		|	new.getNumberOfWorms() == this.getNumberOfWorms() + 1
+	 * @post	The added worm has the state of the given worm.
+	 * 		|	new.getX(result) == worm.getX() && new.getY(result) == worm.getY()
+	 * 		|	&& new.getDirection(result) == worm.getDirection() && new.getRadius(result) == worm.getRadius()
+	 * 		|	&& new.getName(result) == worm.getName() && new.getNumberOfActionPoints(result) == worm.getNumberOfActionPoints()
+	 */
+	public int add(Worm worm) {
+		ensureCapacity(size + 1);
+		int index = size++;
+		names[index] = worm.getName();
+		xs[index] = worm.getX();
+		ys[index] = worm.getY();
+		directions[index] = worm.getDirection();
+		radii[index] = worm.getRadius();
+		actionPoints[index] = worm.getNumberOfActionPoints();
+		updateStep(index);
+		return index;
+	}
+
+	/**
+	 * Add a new worm with the given name, radius, direction and position to this world.
+	 *
+	 * @param	name
+	 * 			The name of the worm.
+	 * @param	radius
+	 * 			The radius of the spherical body of the worm expressed in metres.
+	 * @param	direction
+	 * 			The direction towards which the worm faces expressed in radians.
+	 * @param	x
+	 * 			The x-coordinate of the worm's position expressed in metres.
+	 * @param	y
+	 * 			The y-coordinate of the worm's position expressed in metres.
+	 * @return	The index of the added worm.
+	 * 		|	result == add(new Worm(name, radius, direction, x, y))
+	 * @throws	IllegalArgumentException
+	 * 			The given properties are not valid for any worm.
+	 * 		|	new Worm(name, radius, direction, x, y) throws IllegalArgumentException
+	 */
+	public int add(String name, double radius, double direction, double x, double y) throws IllegalArgumentException {
+		return add(new Worm(name, radius, direction, x, y));
+	}
+
+	/**
+	 * Make sure the arrays of this world can hold the given number of worms.
+	 *
+	 * @param	capacity
+	 * 			The number of worms the arrays must be able to hold.
+	 * @post	The arrays of this world can hold at least the given number of worms.
+	 */
+	@Model
+	private void ensureCapacity(int capacity) {
+		if (capacity <= xs.length)
+			return;
+		int newCapacity = Math.max(capacity, 2 * xs.length);
+		String[] newNames = new String[newCapacity];
+		System.arraycopy(names, 0, newNames, 0, size);
+		names = newNames;
+		xs = copyOf(xs, newCapacity);
+		ys = copyOf(ys, newCapacity);
+		directions = copyOf(directions, newCapacity);
+		radii = copyOf(radii, newCapacity);
+		actionPoints = copyOf(actionPoints, newCapacity);
+		stepXs = copyOf(stepXs, newCapacity);
+		stepYs = copyOf(stepYs, newCapacity);
+		stepCosts = copyOf(stepCosts, newCapacity);
+	}
+
+	private double[] copyOf(double[] array, int newCapacity) {
+		double[] result = new double[newCapacity];
+		System.arraycopy(array, 0, result, 0, size);
+		return result;
+	}
+
+	private int[] copyOf(int[] array, int newCapacity) {
+		int[] result = new int[newCapacity];
+		System.arraycopy(array, 0, result, 0, size);
+		return result;
+	}
+
+	/**
+	 * Compute the displacement and the cost of a single step of the worm at the given index,
+	 * from its current direction and radius.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @post	The displacement of a step equals the cosinus and the sinus of the direction of the worm, times its radius.
+	 * 		|	new.stepXs[index] == Math.cos(getDirection(index)) * getRadius(index)
+	 * 		|	new.stepYs[index] == Math.sin(getDirection(index)) * getRadius(index)
+	 * @post	The cost of a step equals the weighted direction of the worm, rounded up.
+	 * 		|	new.stepCosts[index] == ceil(|cos(getDirection(index))| + |4*sin(getDirection(index))|)
+	 */
+	@Model
+	private void updateStep(int index) {
+		double cos = Math.cos(directions[index]);
+		double sin = Math.sin(directions[index]);
+		stepXs[index] = cos * radii[index];
+		stepYs[index] = sin * radii[index];
+		stepCosts[index] = Worm.amountOfActionPointsForStep(cos, sin);
+	}
+
+	/**
+	 * Return the name of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public String getName(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return names[index];
+	}
+
+	/**
+	 * Return the x-coordinate of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public double getX(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return xs[index];
+	}
+
+	/**
+	 * Return the y-coordinate of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public double getY(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return ys[index];
+	}
+
+	/**
+	 * Return the direction of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public double getDirection(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return directions[index];
+	}
+
+	/**
+	 * Return the radius of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public double getRadius(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return radii[index];
+	}
+
+	/**
+	 * Return the current number of action points of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public int getNumberOfActionPoints(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return actionPoints[index];
+	}
+
+	/**
+	 * Return the mass of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @return	The mass of the worm, calculated from its radius as for any worm.
+	 * 		|	result == (1062 * (4 / 3) * Math.PI * Math.pow(getRadius(index), 3))
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public double getMass(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return Worm.mass(radii[index]);
+	}
+
+	/**
+	 * Return the maximum number of action points of the worm at the given index.
+	 *
+	 * @param	index
+	 * 			The index of the worm.
+	 * @return	The maximum number of action points equals the rounded mass of the worm.
+	 * 		|	result == Math.round(getMass(index))
+	 * @throws	IndexOutOfBoundsException
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	public int getMaxNumberOfActionPoints(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return Worm.maxNumberOfActionPoints(Worm.mass(radii[index]));
+	}
+
+	/**
+	 * Check whether the given index is the index of a worm in this world.
+	 *
+	 * @param	index
+	 * 			The index to check.
+	 * @throws	IndexOutOfBoundsException("Invalid index!")
+	 * 			The given index is not the index of a worm in this world.
+	 * 		|	! isValidIndex(index)
+	 */
+	@Model
+	private void checkIndex(int index) throws IndexOutOfBoundsException {
+		if (!isValidIndex(index))
+			throw new IndexOutOfBoundsException("Invalid index!");
+	}
+
+	/**
+	 * Move all worms in this world that can afford it the given number of steps in their current direction,
+	 * while paying the appropriate amount of action points.
+	 *
+	 * @param	numberOfSteps
+	 * 			The number of steps to be taken by each worm in its current direction.
+	 * @return	The number of worms that were moved.
+	 * @post	Each worm that could move the given number of steps has moved as if it were moved by Worm.activeMove(numberOfSteps);
+	 * 			the other worms are left untouched.
+	 * @throws	IllegalArgumentException("Invalid number of steps!")
+	 * 			The given number of steps is negative.
+	 * 		|	numberOfSteps < 0
+	 */
+	public int moveAll(int numberOfSteps) throws IllegalArgumentException {
+		if (numberOfSteps < 0)
+			throw new IllegalArgumentException("Invalid number of steps!");
+		int moved = 0;
+		for (int i = 0; i < size; i++) {
+			// in long, so that the cost of many steps does not overflow to an affordable one
+			long cost = (long) numberOfSteps * stepCosts[i];
+			if (actionPoints[i] >= cost) {
+				xs[i] += numberOfSteps * stepXs[i];
+				ys[i] += numberOfSteps * stepYs[i];
+				actionPoints[i] -= (int) cost;
+				moved++;
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * Compute, without moving any worm, the positions of all worms in this world after moving the given number of steps,
+	 * the amounts of action points they have to pay and whether they can afford it.
+	 *
+	 * The computation involves no trigonometry and no branches, so that the compiler can process several worms per instruction.
+	 *
+	 * @param	numberOfSteps
+	 * 			The number of steps to be taken by each worm in its current direction.
+	 * @param	newXs
+	 * 			The array in which the x-coordinates after moving are stored.
+	 * @param	newYs
+	 * 			The array in which the y-coordinates after moving are stored.
+	 * @param	costs
+	 * 			The array in which the amounts of action points to be paid are stored.
+	 * @param	canMove
+	 * 			The array in which is stored whether each worm can move the given number of steps.
+	 * @return	The number of worms that can move the given number of steps.
+	 * @post	For each worm, the given arrays hold the values a worm with the same state would have, or pay, on Worm.activeMove(numberOfSteps),
+	 * 			whether or not it can afford it.
+	 * 			Costs that exceed the largest integer are stored as the largest integer.
+	 * 		|	for each index in 0..getNumberOfWorms()-1:
+	 * 		|		newXs[index] == getX(index) + Math.cos(getDirection(index))*numberOfSteps*getRadius(index)
+	 * 		|		&& newYs[index] == getY(index) + Math.sin(getDirection(index))*numberOfSteps*getRadius(index)
+	 * 		|		&& costs[index] == min(numberOfSteps*(ceil(|cos(getDirection(index))|+|4*sin(getDirection(index))|)), Integer.MAX_VALUE)
+	 * 		|		&& canMove[index] == (getNumberOfActionPoints(index) >= numberOfSteps*(ceil(|cos(getDirection(index))|+|4*sin(getDirection(index))|)))
+	 * @throws	IllegalArgumentException("Invalid number of steps!")
+	 * 			The given number of steps is negative.
+	 * 		|	numberOfSteps < 0
+	 * @throws	IllegalArgumentException("Invalid buffer!")
+	 * 			One of the given arrays cannot hold a value for each worm in this world.
+	 * 		|	newXs.length < getNumberOfWorms() || newYs.length < getNumberOfWorms()
+	 * 		|	|| costs.length < getNumberOfWorms() || canMove.length < getNumberOfWorms()
+	 */
+	public int computeMoves(int numberOfSteps, double[] newXs, double[] newYs, int[] costs, boolean[] canMove)
+			throws IllegalArgumentException {
+		if (numberOfSteps < 0)
+			throw new IllegalArgumentException("Invalid number of steps!");
+		if ((newXs == null) || (newYs == null) || (costs == null) || (canMove == null)
+				|| (newXs.length < size) || (newYs.length < size) || (costs.length < size) || (canMove.length < size))
+			throw new IllegalArgumentException("Invalid buffer!");
+		for (int i = 0; i < size; i++) {
+			newXs[i] = xs[i] + numberOfSteps * stepXs[i];
+			newYs[i] = ys[i] + numberOfSteps * stepYs[i];
+			costs[i] = (int) Math.min((long) numberOfSteps * stepCosts[i], Integer.MAX_VALUE);
+		}
+		int affordable = 0;
+		for (int i = 0; i < size; i++) {
+			// the sign bit of the difference is set if and only if the worm cannot afford the cost;
+			// in long, so that neither the cost nor the difference overflows
+			int cannot = (int) ((actionPoints[i] - (long) numberOfSteps * stepCosts[i]) >>> 63);
+			canMove[i] = (cannot == 0);
+			affordable += 1 - cannot;
+		}
+		return affordable;
+	}
+
+	/**
+	 * Turn all worms in this world that can afford it by the given angle, while paying the appropriate amount of action points.
+	 *
+	 * @param	turnByAngle
+	 * 			The angle by which each worm will be turned.
+	 * @pre		The representative angle of the given angle to turn by is not zero.
+	 * 		|	Worm.convertToRepresentativeAngle(turnByAngle) != 0
+	 * @return	The number of worms that were turned.
+	 * @post	Each worm that could turn by the given angle has turned as if it were turned by Worm.activeTurn(turnByAngle);
+	 * 			the other worms are left untouched.
+	 * @throws	IllegalArgumentException("Invalid number!")
+	 * 			The given angle is not a finite number.
+	 * 		|	Double.isNaN(turnByAngle) || Double.isInfinite(turnByAngle)
+	 */
+	public int turnAll(double turnByAngle) throws IllegalArgumentException {
+		if (Double.isNaN(turnByAngle) || Double.isInfinite(turnByAngle))
+			throw new IllegalArgumentException("Invalid number!");
+		int cost = Worm.amountOfActionPointsForTurning(turnByAngle);
+		int turned = 0;
+		for (int i = 0; i < size; i++) {
+			if (actionPoints[i] >= cost) {
+				directions[i] = Worm.convertToRepresentativeAngle(directions[i] + turnByAngle);
+				updateStep(i);
+				actionPoints[i] -= cost;
+				turned++;
+			}
+		}
+		return turned;
+	}
+
+	/**
+	 * Make all worms in this world that can jump jump in their current direction.
+	 *
+	 * @return	The number of worms that jumped.
+	 * @post	Each worm that could jump has jumped as if Worm.jump() were invoked on it;
+	 * 			the other worms are left untouched.
+	 */
+	public int jumpAll() {
+		int jumped = 0;
+		for (int i = 0; i < size; i++) {
+			if (Worm.isPossibleJumpDirection(directions[i])) {
+				xs[i] += Worm.jumpDistance(Worm.mass(radii[i]), actionPoints[i], directions[i]);
+				actionPoints[i] = 0;
+				jumped++;
+			}
+		}
+		return jumped;
+	}
+
+	/**
+	 * Variable registering the number of worms in this world.
+	 */
+	private int size;
+
+	/**
+	 * Variable registering the names of the worms in this world.
+	 */
+	private String[] names;
+
+	/**
+	 * Variable registering the x-coordinates of the worms in this world.
+	 */
+	private double[] xs;
+
+	/**
+	 * Variable registering the y-coordinates of the worms in this world.
+	 */
+	private double[] ys;
+
+	/**
+	 * Variable registering the directions of the worms in this world.
+	 */
+	private double[] directions;
+
+	/**
+	 * Variable registering the radii of the worms in this world.
+	 */
+	private double[] radii;
+
+	/**
+	 * Variable registering the current numbers of action points of the worms in this world.
+	 */
+	private int[] actionPoints;
+
+	/**
+	 * Variables registering the displacement of the worms in this world when taking a single step,
+	 * kept up to date with their directions so that moving needs no trigonometry.
+	 */
+	private double[] stepXs, stepYs;
+
+	/**
+	 * Variable registering the amount of action points the worms in this world have to pay for a single step.
+	 */
+	private int[] stepCosts;
+}
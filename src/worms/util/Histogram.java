@@ -0,0 +1,121 @@
+package worms.util;
+
+/**
+ * A histogram of non-negative long values (typically durations in
+ * nanoseconds) with a bounded relative error, in the style of HdrHistogram.
+ *
+ * Values are counted in buckets: every power of two is split into
+ * 2^SUB_BUCKET_BITS buckets of equal width, so that the width of a bucket is
+ * at most 1/32 of the values it holds. Recording is constant-time and does
+ * not allocate.
+ *
+ * Instances are not thread-safe; use one histogram per writing thread and
+ * combine them with {@link #add(Histogram)}.
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long totalCount;
+	private long max;
+	private double sum;
+
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value: " + value);
+		}
+		counts[indexOf(value)]++;
+		totalCount++;
+		sum += value;
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return totalCount == 0 ? 0 : sum / totalCount;
+	}
+
+	/**
+	 * Returns the smallest value such that the given percentage of the
+	 * recorded values is not greater than it (up to the precision of the
+	 * buckets), or 0 if no values have been recorded.
+	 *
+	 * @param percentile
+	 *            (between 0 and 100)
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long countAtPercentile = (long) Math.ceil(Math.min(100, percentile)
+				/ 100 * totalCount);
+		countAtPercentile = Math.max(1, countAtPercentile);
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += counts[i];
+			if (count >= countAtPercentile) {
+				return Math.min(highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Add all values recorded in the given histogram to this histogram.
+	 */
+	public void add(Histogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = 0;
+		}
+		totalCount = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index >> SUB_BUCKET_BITS) - 1;
+		long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+		long highest = ((subBucket + 1) << shift) - 1;
+		return highest < 0 ? Long.MAX_VALUE : highest;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+				totalCount, getMean(), getValueAtPercentile(50),
+				getValueAtPercentile(90), getValueAtPercentile(99), max);
+	}
+}
@@ -0,0 +1,170 @@
+package worms.util;
+
+/**
+ * A hash map from primitive <code>long</code> keys to non-null values, with
+ * open addressing and linear probing, so that looking up a key neither boxes
+ * it nor allocates.
+ *
+ * Removal shifts the entries that follow the removed one back into place,
+ * rather than leaving a tombstone, so lookups stay short however often keys
+ * are added and removed.
+ */
+public class LongHashMap<V> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+
+	/**
+	 * null for the free slots
+	 */
+	private V[] values;
+
+	private int size;
+
+	public LongHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            the number of entries the map can hold before it grows
+	 */
+	public LongHashMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Invalid size: " + expectedSize);
+		}
+		int capacity = MIN_CAPACITY;
+		while (capacity / 2 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = (V[]) new Object[capacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the value of the given key, or null if the map has none.
+	 */
+	public V get(long key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Associates the given value with the given key.
+	 *
+	 * @return the previous value of the key, or null if it had none
+	 */
+	public V put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Values must not be null");
+		}
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				V result = values[i];
+				values[i] = value;
+				return result;
+			}
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		// keep the load factor at most 1/2
+		if (2 * size > keys.length) {
+			rehash(2 * keys.length);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the value of the given key.
+	 *
+	 * @return the removed value, or null if the key had none
+	 */
+	public V remove(long key) {
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				V result = values[i];
+				shiftBack(i, mask);
+				size--;
+				return result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Free the given slot, moving back the entries after it that would no
+	 * longer be found past the gap.
+	 */
+	private void shiftBack(int gap, int mask) {
+		int i = gap;
+		while (true) {
+			i = (i + 1) & mask;
+			if (values[i] == null) {
+				break;
+			}
+			int home = slot(keys[i], mask);
+			// the entry may fill the gap if its home slot is not in (gap, i]
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+		}
+		values[gap] = null;
+	}
+
+	public void clear() {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		V[] oldValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int j = 0; j < oldValues.length; j++) {
+			if (oldValues[j] != null) {
+				int i = slot(oldKeys[j], mask);
+				while (values[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private static int slot(long key, int mask) {
+		// mix the bits, so that keys that differ in their high bits only
+		// (such as grid cells in the same column) spread over the slots
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,156 @@
+package worms.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producer threads and a single consumer
+ * thread, in the style of Dmitry Vyukov's bounded queue.
+ *
+ * The elements are kept in a ring of slots, each with a sequence number that
+ * tells whose turn it is: a producer claims the slot at the tail with a
+ * single compare-and-set on the tail position, stores its element and then
+ * publishes the slot by advancing its sequence number; the consumer takes
+ * the element at the head once the slot has been published, and hands the
+ * slot back to the producers of the next round. Neither side ever blocks,
+ * and {@link #offer(Object)} fails rather than waits when the ring is full.
+ *
+ * Only a single thread at a time may call {@link #poll()} and
+ * {@link #peek()}; all other methods may be called on any thread.
+ */
+public class MpscRingBuffer<E> {
+
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+
+	/**
+	 * The sequence number of each slot: equal to the position at which the
+	 * slot can be claimed by a producer, one more than that once the element
+	 * at that position has been published
+	 */
+	private final AtomicLongArray sequences;
+
+	/**
+	 * The position of the next element to be offered
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * The position of the next element to be polled; only written by the
+	 * consumer
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * @param capacity
+	 *            the minimal number of elements the buffer can hold; rounded
+	 *            up to a power of two, and to at least two
+	 */
+	public MpscRingBuffer(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		// with a single slot, the sequence number of a published element
+		// would equal the position of the next one, so that a producer
+		// could overwrite an element that was not polled yet
+		size = Math.max(size, 2);
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<E>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Add the given element at the tail of the buffer, if the buffer is not
+	 * full.
+	 *
+	 * @return whether the element was added
+	 */
+	public boolean offer(E element) {
+		if (element == null) {
+			throw new NullPointerException();
+		}
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements.lazySet(index, element);
+					// ordered after the element, so the consumer sees both
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// the slot still holds the element of the previous round
+				return false;
+			} else {
+				// another producer claimed the slot first
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Remove and return the element at the head of the buffer; null if the
+	 * buffer is empty, or if the producer of the head element has not
+	 * finished adding it.
+	 */
+	public E poll() {
+		long position = head.get();
+		int index = (int) position & mask;
+		if (sequences.get(index) != position + 1) {
+			return null;
+		}
+		E result = elements.get(index);
+		elements.lazySet(index, null);
+		sequences.lazySet(index, position + mask + 1);
+		head.lazySet(position + 1);
+		return result;
+	}
+
+	/**
+	 * Return the element at the head of the buffer without removing it; null
+	 * in the same cases as {@link #poll()}.
+	 */
+	public E peek() {
+		long position = head.get();
+		int index = (int) position & mask;
+		if (sequences.get(index) != position + 1) {
+			return null;
+		}
+		return elements.get(index);
+	}
+
+	/**
+	 * The number of elements in the buffer, including those whose producers
+	 * have claimed a slot but not yet finished adding them. The result is
+	 * only exact if no other thread modifies the buffer meanwhile.
+	 */
+	public int size() {
+		while (true) {
+			long before = head.get();
+			long currentTail = tail.get();
+			if (head.get() == before) {
+				return (int) Math.max(0,
+						Math.min(currentTail - before, mask + 1));
+			}
+		}
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+}
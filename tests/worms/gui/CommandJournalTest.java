@@ -0,0 +1,302 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Rename;
+import worms.gui.game.commands.Resize;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+public class CommandJournalTest {
+
+	private static final long[] VALUES = { 0, 1, -1, 63, -64, 64, 127, 128,
+			300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE,
+			Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1 };
+
+	private IFacade facade;
+	private GameState state;
+	private List<Worm> worms;
+	private SimulationEngine engine;
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		facade = new Facade();
+		state = new GameState(facade, 42, 1024, 768);
+		state.startGame();
+		worms = new ArrayList<Worm>(state.getWorms());
+		engine = new SimulationEngine(state);
+		file = File.createTempFile("game", ".journal");
+	}
+
+	@After
+	public void cleanup() {
+		state.setJournal(null);
+		file.delete();
+	}
+
+	@Test
+	public void testVarLongRoundTrip() throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(16 * VALUES.length);
+		for (long value : VALUES) {
+			CommandJournal.writeVarLong(buffer, value);
+		}
+		buffer.flip();
+		for (long value : VALUES) {
+			assertEquals(value, CommandJournal.readVarLong(buffer));
+		}
+		assertFalse(buffer.hasRemaining());
+	}
+
+	@Test
+	public void testVarLongLength() {
+		assertEquals(1, varLongLength(0));
+		assertEquals(1, varLongLength(127));
+		assertEquals(2, varLongLength(128));
+		// negative values have their highest bit set
+		assertEquals(10, varLongLength(-1));
+		assertEquals(10, varLongLength(Long.MIN_VALUE));
+		assertEquals(9, varLongLength(Long.MAX_VALUE));
+	}
+
+	private static int varLongLength(long value) {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		CommandJournal.writeVarLong(buffer, value);
+		return buffer.position();
+	}
+
+	@Test
+	public void testZigZagRoundTrip() throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(16 * VALUES.length);
+		for (long value : VALUES) {
+			assertEquals(value,
+					CommandJournal.unZigZag(CommandJournal.zigZag(value)));
+			CommandJournal.writeVarLong(buffer, CommandJournal.zigZag(value));
+		}
+		buffer.flip();
+		for (long value : VALUES) {
+			assertEquals(value, CommandJournal.unZigZag(CommandJournal
+					.readVarLong(buffer)));
+		}
+	}
+
+	@Test
+	public void testZigZagSmallNegativeValues() {
+		assertEquals(0, CommandJournal.zigZag(0));
+		assertEquals(1, CommandJournal.zigZag(-1));
+		assertEquals(2, CommandJournal.zigZag(1));
+		assertEquals(3, CommandJournal.zigZag(-2));
+		assertEquals(1, varLongLength(CommandJournal.zigZag(-64)));
+		assertEquals(-1, CommandJournal.zigZag(Long.MIN_VALUE));
+		assertEquals(-2, CommandJournal.zigZag(Long.MAX_VALUE));
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedVarLong() throws IOException {
+		CommandJournal.readVarLong(ByteBuffer.wrap(new byte[] { (byte) 0x80,
+				(byte) 0x80 }));
+	}
+
+	@Test(expected = IOException.class)
+	public void testVarLongLongerThan64Bits() throws IOException {
+		byte[] bytes = new byte[11];
+		Arrays.fill(bytes, (byte) 0x80);
+		bytes[10] = 1;
+		CommandJournal.readVarLong(ByteBuffer.wrap(bytes));
+	}
+
+	@Test
+	public void testInvalidLengths() {
+		for (long length : new long[] { -1, 4, Long.MIN_VALUE }) {
+			ByteBuffer buffer = ByteBuffer.allocate(16);
+			CommandJournal.writeVarLong(buffer, length);
+			buffer.put(new byte[3]);
+			buffer.flip();
+			try {
+				CommandJournal.readLength(buffer);
+				fail("Read length " + length);
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testRecordAndReplay() throws IOException {
+		state.setJournal(new CommandJournal(file, state));
+		Worm first = worms.get(0);
+		Worm second = worms.get(3);
+		Worm last = worms.get(worms.size() - 1);
+
+		state.enqueueCommand(new Turn(facade, first, -0.75, null));
+		state.enqueueCommand(new Move(facade, first, 2, null));
+		engine.run(7);
+		state.enqueueCommand(new Resize(facade, second, 1.5, null));
+		state.enqueueCommand(new Rename(facade, second, "Secundus", null));
+		engine.runUntilIdle(Long.MAX_VALUE);
+		// the game is idle for a while
+		engine.run(100);
+		state.enqueueCommand(new Turn(facade, last, Math.PI / 4, null));
+		state.enqueueCommand(new Jump(facade, last, null));
+		engine.run(3);
+		state.enqueueCommand(new Move(facade, first, 1, null));
+		engine.runUntilIdle(Long.MAX_VALUE);
+		state.setJournal(null);
+
+		JournalReplayer replayer = new JournalReplayer(new Facade());
+		GameState replayed = replayer.replay(file, Long.MAX_VALUE);
+
+		assertEquals(7, replayer.getNbRecords());
+		List<Worm> replayedWorms = new ArrayList<Worm>(replayed.getWorms());
+		assertEquals(worms.size(), replayedWorms.size());
+		for (int i = 0; i < worms.size(); i++) {
+			checkWorm(worms.get(i), replayedWorms.get(i),
+					replayed.getFacade());
+		}
+		assertEquals("Secundus", replayed.getFacade().getName(
+				replayedWorms.get(3)));
+	}
+
+	private void checkWorm(Worm expected, Worm actual, IFacade actualFacade) {
+		assertEquals(facade.getX(expected), actualFacade.getX(actual), 0);
+		assertEquals(facade.getY(expected), actualFacade.getY(actual), 0);
+		assertEquals(facade.getOrientation(expected),
+				actualFacade.getOrientation(actual), 0);
+		assertEquals(facade.getRadius(expected), actualFacade.getRadius(actual),
+				0);
+		assertEquals(facade.getName(expected), actualFacade.getName(actual));
+		assertEquals(facade.getActionPoints(expected),
+				actualFacade.getActionPoints(actual));
+	}
+
+	@Test
+	public void testReplayUnclosedJournal() throws IOException {
+		CommandJournal journal = new CommandJournal(file, state);
+		state.setJournal(journal);
+		state.enqueueCommand(new Move(facade, worms.get(1), 1, null));
+		state.enqueueCommand(new Rename(facade, worms.get(2), "Tertius", null));
+
+		// the rest of the mapped region is zero, which reads as END
+		assertTrue(file.length() > 1000);
+		JournalReplayer replayer = new JournalReplayer(new Facade());
+		GameState replayed = replayer.replay(file, Long.MAX_VALUE);
+
+		assertEquals(2, replayer.getNbRecords());
+		assertEquals(2, journal.getNbRecords());
+		List<Worm> replayedWorms = new ArrayList<Worm>(replayed.getWorms());
+		assertEquals("Tertius", replayed.getFacade().getName(
+				replayedWorms.get(2)));
+	}
+
+	@Test
+	public void testTruncatedRecords() throws IOException {
+		int headerLength = readJournal().length - 1;
+		state.setJournal(new CommandJournal(file, state));
+		state.enqueueCommand(new Turn(facade, worms.get(0), 0.5, null));
+		state.setJournal(null);
+		byte[] bytes = readJournal();
+		int recordLength = bytes.length - 1 - headerLength;
+
+		for (int length = 0; length < headerLength + recordLength; length++) {
+			if (length == headerLength) {
+				// a journal without records
+				continue;
+			}
+			try {
+				replay(Arrays.copyOf(bytes, length));
+				fail("Replayed a journal truncated to " + length + " bytes");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		// without the END byte
+		replay(Arrays.copyOf(bytes, headerLength + recordLength));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownRecordType() throws IOException {
+		byte[] bytes = readJournal();
+		// replace END by a record of an unknown type for the first worm
+		bytes = Arrays.copyOf(bytes, bytes.length + 2);
+		bytes[bytes.length - 3] = 9;
+		replay(bytes);
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidWormIndex() throws IOException {
+		byte[] bytes = readJournal();
+		bytes = Arrays.copyOf(bytes, bytes.length + 2);
+		bytes[bytes.length - 3] = CommandJournal.JUMP;
+		bytes[bytes.length - 1] = (byte) worms.size();
+		replay(bytes);
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptNameLength() throws IOException {
+		state.setJournal(new CommandJournal(file, state));
+		state.enqueueCommand(new Rename(facade, worms.get(0), "Primus", null));
+		state.setJournal(null);
+		byte[] bytes = readJournal();
+		// the name is followed by END
+		int nameLength = bytes.length - 1 - "Primus".length() - 1;
+		assertEquals("Primus".length(), bytes[nameLength]);
+		bytes[nameLength] = 0x7F;
+		replay(bytes);
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotAJournal() throws IOException {
+		byte[] bytes = readJournal();
+		bytes[0] ^= 1;
+		replay(bytes);
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnsupportedVersion() throws IOException {
+		byte[] bytes = readJournal();
+		bytes[4] = CommandJournal.VERSION + 1;
+		replay(bytes);
+	}
+
+	/**
+	 * The bytes of a closed journal of the game, without any commands unless
+	 * some were recorded before
+	 */
+	private byte[] readJournal() throws IOException {
+		if (file.length() == 0) {
+			new CommandJournal(file, state).close();
+		}
+		byte[] result = new byte[(int) file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int offset = 0;
+			while (offset < result.length) {
+				offset += in.read(result, offset, result.length - offset);
+			}
+		} finally {
+			in.close();
+		}
+		return result;
+	}
+
+	private GameState replay(byte[] bytes) throws IOException {
+		return new JournalReplayer(new Facade()).replay(ByteBuffer.wrap(bytes),
+				Long.MAX_VALUE);
+	}
+}
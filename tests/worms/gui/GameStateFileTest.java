@@ -0,0 +1,264 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Rename;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+public class GameStateFileTest {
+
+	private static final double ALICE_X = 123.25;
+
+	private IFacade facade;
+	private GameState state;
+	private Worm alice;
+	private Worm bob;
+	private File directory;
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		facade = new Facade();
+		state = new GameState(facade, 42, 1024, 768);
+		alice = facade.restoreWorm(ALICE_X, 45.5, 1.5, 0.5, "Alice", 10);
+		bob = facade.restoreWorm(-7, 300, 6, 0.75, "Bob 'the worm'", 20);
+		state.addWorm(alice);
+		state.addWorm(bob);
+		state.selectWorm(bob);
+
+		file = File.createTempFile("game", ".sav");
+		directory = file.getParentFile();
+	}
+
+	@After
+	public void cleanup() {
+		file.delete();
+	}
+
+	@Test
+	public void testRoundTripUncompressed() throws IOException {
+		checkRoundTrip(false);
+	}
+
+	@Test
+	public void testRoundTripCompressed() throws IOException {
+		checkRoundTrip(true);
+	}
+
+	private void checkRoundTrip(boolean compressed) throws IOException {
+		state.enqueueCommand(new Move(facade, alice, 2, null));
+		state.enqueueCommand(new Turn(facade, alice, -0.5, null));
+		state.enqueueCommand(new Rename(facade, bob, "Robert", null));
+		state.setNbTicks(17);
+
+		GameStateFile.save(state, file, compressed);
+		GameState loaded = GameStateFile.load(file, new Facade());
+
+		assertEquals(42, loaded.getRandomSeed());
+		assertEquals(1024, loaded.getWidth());
+		assertEquals(768, loaded.getHeight());
+		assertEquals(17, loaded.getNbTicks());
+
+		List<Worm> worms = new ArrayList<Worm>(loaded.getWorms());
+		assertEquals(2, worms.size());
+		checkWorm(alice, worms.get(0), loaded.getFacade());
+		checkWorm(bob, worms.get(1), loaded.getFacade());
+		assertSame(worms.get(1), loaded.getSelectedWorm());
+
+		assertEquals(describe(state, state.getWorms()),
+				describe(loaded, worms));
+	}
+
+	private void checkWorm(Worm expected, Worm actual, IFacade actualFacade) {
+		assertEquals(facade.getX(expected), actualFacade.getX(actual), 0);
+		assertEquals(facade.getY(expected), actualFacade.getY(actual), 0);
+		assertEquals(facade.getOrientation(expected),
+				actualFacade.getOrientation(actual), 0);
+		assertEquals(facade.getRadius(expected), actualFacade.getRadius(actual),
+				0);
+		assertEquals(facade.getName(expected), actualFacade.getName(actual));
+		assertEquals(facade.getActionPoints(expected),
+				actualFacade.getActionPoints(actual));
+	}
+
+	/**
+	 * The pending commands of the given game, in terms of the index of
+	 * their worm in the given list
+	 */
+	private static List<String> describe(GameState game,
+			Collection<Worm> worms) {
+		List<Worm> indices = new ArrayList<Worm>(worms);
+		List<String> result = new ArrayList<String>();
+		for (Command cmd : game.getCommandProcessor().getPendingCommands()) {
+			String argument;
+			if (cmd instanceof Move) {
+				argument = "move " + ((Move) cmd).getNbSteps();
+			} else if (cmd instanceof Turn) {
+				argument = "turn " + ((Turn) cmd).getAngle();
+			} else if (cmd instanceof Rename) {
+				argument = "rename " + ((Rename) cmd).getNewName();
+			} else {
+				argument = cmd.getClass().getSimpleName();
+			}
+			result.add(indices.indexOf(cmd.getWorm()) + ": " + argument);
+		}
+		return result;
+	}
+
+	@Test
+	public void testRoundTripNoSelection() throws IOException {
+		GameState game = new GameState(facade, 1, 10, 10);
+		game.addWorm(alice);
+
+		GameStateFile.save(game, file, false);
+		GameState loaded = GameStateFile.load(file, new Facade());
+
+		assertEquals(1, loaded.getWorms().size());
+		assertNull(loaded.getSelectedWorm());
+	}
+
+	@Test
+	public void testSaveReplacesFile() throws IOException {
+		GameStateFile.save(state, file, true);
+		state.selectWorm(alice);
+		GameStateFile.save(state, file, false);
+
+		GameState loaded = GameStateFile.load(file, new Facade());
+		assertSame(loaded.getWorms().iterator().next(),
+				loaded.getSelectedWorm());
+	}
+
+	@Test
+	public void testFailedSaveKeepsFile() throws IOException {
+		GameStateFile.save(state, file, false);
+		byte[] saved = read(file);
+		List<String> before = Arrays.asList(directory.list());
+
+		// a command of a worm that is not part of the game cannot be saved
+		Worm stranger = facade.restoreWorm(0, 0, 0, 0.5, "Stranger", 0);
+		state.enqueueCommand(new Move(facade, stranger, 1, null));
+		try {
+			GameStateFile.save(state, file, false);
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+
+		assertArrayEquals(saved, read(file));
+		assertEquals(before.size(), directory.list().length);
+	}
+
+	@Test
+	public void testTruncatedFiles() throws IOException {
+		for (boolean compressed : new boolean[] { false, true }) {
+			state.enqueueCommand(new Rename(facade, alice, "Alicia", null));
+			GameStateFile.save(state, file, compressed);
+			byte[] saved = read(file);
+			for (int length = 0; length < saved.length; length++) {
+				write(file, Arrays.copyOf(saved, length));
+				try {
+					GameStateFile.load(file, new Facade());
+					fail("Loaded a file truncated to " + length + " bytes");
+				} catch (IOException e) {
+					// expected
+				}
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptNameLength() throws IOException {
+		GameStateFile.save(state, file, false);
+		byte[] bytes = read(file);
+		// the 4 doubles of the record of Alice are followed by its action
+		// points (a single byte) and the length of its name
+		int nameLength = findAliceRecord(bytes) + 4 * 8 + 1;
+		assertEquals("Alice".length(), bytes[nameLength]);
+		bytes[nameLength] = 0x7F;
+		write(file, bytes);
+
+		GameStateFile.load(file, new Facade());
+	}
+
+	@Test
+	public void testDirectionOutOfRange() throws IOException {
+		GameStateFile.save(state, file, false);
+		byte[] saved = read(file);
+		int direction = findAliceRecord(saved) + 2 * 8;
+		for (double value : new double[] { -0.1, 2 * Math.PI, 1E300,
+				-1E300, Double.NaN, Double.POSITIVE_INFINITY }) {
+			byte[] bytes = saved.clone();
+			ByteBuffer.wrap(bytes).putDouble(direction, value);
+			write(file, bytes);
+			try {
+				GameStateFile.load(file, new Facade());
+				fail("Loaded a direction of " + value);
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * The offset of the record of Alice in the given uncompressed file
+	 */
+	private static int findAliceRecord(byte[] bytes) {
+		byte[] x = new byte[8];
+		ByteBuffer.wrap(x).putDouble(ALICE_X);
+		search: for (int i = 0; i + x.length <= bytes.length; i++) {
+			for (int j = 0; j < x.length; j++) {
+				if (bytes[i + j] != x[j]) {
+					continue search;
+				}
+			}
+			return i;
+		}
+		throw new AssertionError("Record not found");
+	}
+
+	private static byte[] read(File file) throws IOException {
+		byte[] result = new byte[(int) file.length()];
+		FileInputStream input = new FileInputStream(file);
+		try {
+			int offset = 0;
+			while (offset < result.length) {
+				int count = input.read(result, offset, result.length - offset);
+				if (count < 0) {
+					throw new IOException("Unexpected end of file");
+				}
+				offset += count;
+			}
+		} finally {
+			input.close();
+		}
+		return result;
+	}
+
+	private static void write(File file, byte[] bytes) throws IOException {
+		FileOutputStream output = new FileOutputStream(file);
+		try {
+			output.write(bytes);
+		} finally {
+			output.close();
+		}
+	}
+}
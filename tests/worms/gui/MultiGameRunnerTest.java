@@ -0,0 +1,128 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.gui.game.commands.Move;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+public class MultiGameRunnerTest {
+
+	private static final long NB_TICKS = 25;
+
+	private IFacade facade;
+	private MultiGameRunner runner;
+
+	@Before
+	public void setup() {
+		facade = new Facade();
+		runner = new MultiGameRunner(3);
+	}
+
+	@After
+	public void cleanup() {
+		runner.shutdown();
+	}
+
+	private GameState createGame() {
+		return new GameState(facade, 42, 1024, 768);
+	}
+
+	@Test
+	public void testRunEveryGameOnce() throws InterruptedException {
+		// fewer games than slices, and more
+		for (int nbGames : new int[] { 7, 50 }) {
+			MultiGameRunner runner = new MultiGameRunner(3);
+			try {
+				for (int i = 0; i < nbGames; i++) {
+					assertEquals(i, runner.addGame(createGame()));
+				}
+				runner.run(NB_TICKS);
+
+				assertEquals(nbGames, runner.getNbGames());
+				for (int i = 0; i < nbGames; i++) {
+					assertEquals(NB_TICKS, runner.getGame(i).getGameState()
+							.getNbTicks());
+					assertEquals(NB_TICKS, runner.getGame(i).getTickCount());
+					assertEquals(NB_TICKS, runner.getTickLatencies(i)
+							.getTotalCount());
+				}
+				assertEquals(nbGames * NB_TICKS, runner
+						.getTotalTickLatencies().getTotalCount());
+			} finally {
+				runner.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void testRunWithoutGames() throws InterruptedException {
+		runner.run(NB_TICKS);
+		assertEquals(0, runner.getTotalTickLatencies().getTotalCount());
+	}
+
+	@Test
+	public void testRunUntilIdle() throws InterruptedException {
+		GameState idle = createGame();
+		GameState busy = createGame();
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		busy.addWorm(worm);
+		busy.enqueueCommand(new Move(facade, worm, 1, null));
+		runner.addGame(idle);
+		runner.addGame(busy);
+
+		runner.runUntilIdle(1000);
+
+		assertEquals(0, idle.getNbTicks());
+		assertEquals(0, runner.getTickLatencies(0).getTotalCount());
+		assertTrue(busy.isIdle());
+		assertTrue(busy.getNbTicks() > 0);
+		assertTrue(busy.getNbTicks() < 1000);
+		assertEquals(busy.getNbTicks(), runner.getTickLatencies(1)
+				.getTotalCount());
+		assertEquals(1, facade.getX(worm), 1e-9);
+	}
+
+	@Test
+	public void testRunUntilIdleStopsAtMaxTicks() throws InterruptedException {
+		GameState busy = createGame();
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		busy.addWorm(worm);
+		busy.enqueueCommand(new Move(facade, worm, 1, null));
+		runner.addGame(busy);
+
+		runner.runUntilIdle(1);
+
+		assertEquals(1, busy.getNbTicks());
+	}
+
+	@Test
+	public void testFailingGame() throws InterruptedException {
+		final RuntimeException failure = new IllegalStateException("Broken");
+		runner.addGame(createGame());
+		runner.addGame(new SimulationEngine(createGame()) {
+			@Override
+			public void tick() {
+				throw failure;
+			}
+		});
+		try {
+			runner.run(NB_TICKS);
+			fail();
+		} catch (RuntimeException e) {
+			assertSame(failure, e.getCause());
+		}
+		// the other game was run regardless
+		assertEquals(NB_TICKS, runner.getGame(0).getTickCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoThreads() {
+		new MultiGameRunner(0);
+	}
+}
@@ -0,0 +1,64 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Facade;
+
+public class SimulationEngineTest {
+
+	private GameState state;
+	private SimulationEngine engine;
+
+	@Before
+	public void setup() {
+		state = new GameState(new Facade(), 42, 1024, 768);
+		engine = new SimulationEngine(state, 1.0);
+	}
+
+	@Test
+	public void testTick() {
+		engine.tick();
+		engine.run(4);
+		assertEquals(5, engine.getTickCount());
+		assertEquals(5, state.getNbTicks());
+		assertEquals(5.0, engine.getSimulatedTime(), 0);
+	}
+
+	@Test
+	public void testAdvanceCarriesRemainder() {
+		assertEquals(0, engine.advance(0.75));
+		assertEquals(1, engine.advance(0.5));
+		// 0.25 is left
+		assertEquals(0, engine.advance(0.5));
+		assertEquals(2, engine.advance(1.25));
+		assertEquals(0, engine.advance(0.75));
+		assertEquals(1, engine.advance(0.25));
+		assertEquals(4, engine.getTickCount());
+		assertEquals(4, state.getNbTicks());
+	}
+
+	@Test
+	public void testAdvanceClampsAfterLongPause() {
+		assertEquals(10, engine.advance(1000));
+		// at most a single tick of the pause is carried over
+		assertEquals(1, engine.advance(0));
+		assertEquals(0, engine.advance(0));
+		assertEquals(1, engine.advance(1));
+		assertEquals(12, engine.getTickCount());
+	}
+
+	@Test
+	public void testAdvanceRunsWholeTicksWithoutClamping() {
+		assertEquals(10, engine.advance(10.5));
+		// exactly MAX_TICKS_PER_ADVANCE ticks fit, so the remainder is kept
+		assertEquals(1, engine.advance(0.5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveTimestep() {
+		new SimulationEngine(state, 0);
+	}
+}
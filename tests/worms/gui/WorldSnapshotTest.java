@@ -0,0 +1,128 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+public class WorldSnapshotTest {
+
+	// two full chunks and a partial one
+	private static final int NB_WORMS = 130;
+
+	private IFacade facade;
+	private List<Worm> worms;
+	private WorldSnapshot first;
+
+	@Before
+	public void setup() {
+		facade = new Facade();
+		worms = new ArrayList<Worm>();
+		for (int i = 0; i < NB_WORMS; i++) {
+			worms.add(facade.createWorm(i, -i, 1, 0.5, "Worm"));
+		}
+		first = WorldSnapshot.first(facade, worms);
+	}
+
+	@Test
+	public void testFirst() {
+		assertEquals(0, first.getTick());
+		assertEquals(0, first.getTime(), 0);
+		assertEquals(NB_WORMS, first.size());
+		assertEquals(NB_WORMS, first.getWormStates().size());
+		for (int i = 0; i < NB_WORMS; i++) {
+			WormState state = first.get(i);
+			assertSame(worms.get(i), state.getWorm());
+			assertEquals(i, state.getX(), 0);
+			assertEquals(-i, state.getY(), 0);
+		}
+	}
+
+	@Test
+	public void testUnchangedWormsAreShared() {
+		WorldSnapshot next = first.next(facade, worms, 0.25);
+		assertEquals(1, next.getTick());
+		assertEquals(0.25, next.getTime(), 0);
+		for (int i = 0; i < NB_WORMS; i++) {
+			assertSame(first.get(i), next.get(i));
+			assertTrue(next.sharesChunk(first, i));
+		}
+	}
+
+	@Test
+	public void testChangedWormIsCopied() {
+		facade.turn(worms.get(70), 0.5);
+		WorldSnapshot next = first.next(facade, worms, 0.25);
+
+		assertNotSame(first.get(70), next.get(70));
+		assertEquals(1.5, next.get(70).getDirection(), 1e-9);
+		assertEquals(1, first.get(70).getDirection(), 0);
+		assertFalse(next.sharesChunk(first, 70));
+		// the other worms of its chunk are shared, unlike the chunk itself
+		assertSame(first.get(64), next.get(64));
+		assertSame(first.get(127), next.get(127));
+		assertTrue(next.sharesChunk(first, 0));
+		assertTrue(next.sharesChunk(first, NB_WORMS - 1));
+	}
+
+	@Test
+	public void testChangedWormInLastChunk() {
+		facade.move(worms.get(NB_WORMS - 1), 1);
+		WorldSnapshot next = first.next(facade, worms, 0.25);
+
+		assertNotSame(first.get(NB_WORMS - 1), next.get(NB_WORMS - 1));
+		assertSame(first.get(NB_WORMS - 2), next.get(NB_WORMS - 2));
+		assertFalse(next.sharesChunk(first, NB_WORMS - 1));
+		assertTrue(next.sharesChunk(first, 64));
+	}
+
+	@Test
+	public void testAddedWorms() {
+		worms.add(facade.createWorm(-1, -1, 1, 0.5, "Added"));
+		WorldSnapshot next = first.next(facade, worms, 0.25);
+
+		assertEquals(NB_WORMS + 1, next.size());
+		assertEquals("Added", next.get(NB_WORMS).getName());
+		assertSame(first.get(NB_WORMS - 1), next.get(NB_WORMS - 1));
+		assertFalse(next.sharesChunk(first, NB_WORMS));
+		assertTrue(next.sharesChunk(first, 0));
+
+		// until the last chunk is full, and a new one is started
+		for (int i = 1; i < 64; i++) {
+			worms.add(facade.createWorm(-1, -1, 1, 0.5, "Added"));
+		}
+		WorldSnapshot last = next.next(facade, worms, 0.25);
+		assertEquals(NB_WORMS + 64, last.size());
+		assertSame(next.get(NB_WORMS), last.get(NB_WORMS));
+		assertEquals(worms.get(NB_WORMS + 63), last.get(NB_WORMS + 63)
+				.getWorm());
+		assertFalse(last.sharesChunk(next, NB_WORMS + 63));
+	}
+
+	@Test
+	public void testGetOutOfRange() {
+		for (int index : new int[] { -1, NB_WORMS, Integer.MAX_VALUE,
+				Integer.MIN_VALUE }) {
+			try {
+				first.get(index);
+				fail("Got index " + index);
+			} catch (IndexOutOfBoundsException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		WorldSnapshot empty = WorldSnapshot.first(facade, new ArrayList<Worm>());
+		assertEquals(0, empty.size());
+		assertTrue(empty.getWormStates().isEmpty());
+	}
+}
@@ -0,0 +1,127 @@
+package worms.gui.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpatialIndexTest {
+
+	private SpatialIndex<String> index;
+
+	@Before
+	public void setup() {
+		index = new SpatialIndex<String>(10);
+	}
+
+	@Test
+	public void testFindNearestSameCell() {
+		index.put("a", 1, 1, 1);
+		index.put("b", 4, 4, 1);
+		assertEquals("b", index.findNearest(5, 5, 100));
+	}
+
+	@Test
+	public void testFindNearestInLaterRing() {
+		index.put("far", 95, 5, 1);
+		index.put("near", 5, 48, 1);
+		assertEquals("near", index.findNearest(5, 5, Double.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void testFindNearestPrefersCloserCenterInOuterRing() {
+		// "corner" is in the ring around the cell of the location, but
+		// "side" is closer although it lies in the ring beyond it
+		index.put("corner", 19.9, 19.9, 1);
+		index.put("side", 9.9, 21, 1);
+		assertEquals("side", index.findNearest(9.9, 9.9, 100));
+	}
+
+	@Test
+	public void testFindNearestMaxDistance() {
+		index.put("a", 50, 0, 1);
+		assertNull(index.findNearest(0, 0, 49));
+		assertEquals("a", index.findNearest(0, 0, 50));
+	}
+
+	@Test
+	public void testFindNearestEmpty() {
+		assertNull(index.findNearest(0, 0, Double.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void testFindNearestFarAway() {
+		index.put("a", 1e12, -1e12, 1);
+		assertEquals("a", index.findNearest(0, 0, Double.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void testFindNearestSameAsScan() {
+		Random random = new Random(7);
+		List<double[]> points = new ArrayList<double[]>();
+		for (int i = 0; i < 300; i++) {
+			double[] point = { random.nextDouble() * 400 - 200,
+					random.nextDouble() * 400 - 200 };
+			points.add(point);
+			index.put("w" + i, point[0], point[1], 1);
+		}
+		for (int i = 0; i < 500; i++) {
+			double x = random.nextDouble() * 600 - 300;
+			double y = random.nextDouble() * 600 - 300;
+			double maxDistance = random.nextDouble() * 100;
+			String expected = null;
+			double best = maxDistance;
+			for (int j = 0; j < points.size(); j++) {
+				double distance = Math.hypot(points.get(j)[0] - x,
+						points.get(j)[1] - y);
+				if (distance <= best) {
+					best = distance;
+					expected = "w" + j;
+				}
+			}
+			assertEquals(expected, index.findNearest(x, y, maxDistance));
+		}
+	}
+
+	@Test
+	public void testFindAt() {
+		index.put("a", 0, 0, 2);
+		index.put("b", 3, 0, 2);
+		assertEquals("a", index.findAt(1, 0));
+		assertEquals("b", index.findAt(2, 0));
+		assertNull(index.findAt(0, 5));
+	}
+
+	@Test
+	public void testFindAtHugeRadius() {
+		index.put("small", 0, 0, 1);
+		index.put("huge", 1e150, 0, 1e150);
+		assertEquals("small", index.findAt(0.5, 0));
+		assertEquals("huge", index.findAt(1e150, 1e149));
+	}
+
+	@Test
+	public void testMaxRadiusAfterRemove() {
+		index.put("small", 0, 0, 1);
+		index.put("big", 0, 0, 3000);
+		index.remove("big");
+		assertEquals(1, index.getMaxRadius(), 0);
+		index.put("small", 0, 0, 0.5);
+		assertEquals(0.5, index.getMaxRadius(), 0);
+	}
+
+	@Test
+	public void testFindInRangeMovedItem() {
+		index.put("a", 0, 0, 1);
+		index.put("a", 100, 100, 1);
+		List<String> result = new ArrayList<String>();
+		index.findInRange(-5, -5, 5, 5, result);
+		assertTrue(result.isEmpty());
+		index.findInRange(95, 95, 105, 105, result);
+		assertEquals(1, result.size());
+	}
+}
@@ -0,0 +1,119 @@
+package worms.gui.game.commands;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.gui.game.commands.CommandProcessor.OverflowPolicy;
+import worms.model.Worm;
+
+public class CommandProcessorTest {
+
+	/**
+	 * A command that records its execution
+	 */
+	private static class Record extends InstantaneousCommand {
+		private final Worm worm;
+		private final List<Record> executed;
+
+		private Record(Worm worm, List<Record> executed) {
+			super(null, null);
+			this.worm = worm;
+			this.executed = executed;
+		}
+
+		@Override
+		protected boolean canExecute() {
+			return true;
+		}
+
+		@Override
+		protected void doStartExecution() {
+			synchronized (executed) {
+				executed.add(this);
+			}
+		}
+
+		@Override
+		public Worm getWorm() {
+			return worm;
+		}
+	}
+
+	private Worm worm;
+	private List<Record> executed;
+
+	@Before
+	public void setup() {
+		worm = new Worm("Test", 1, 0, 0, 0);
+		executed = new ArrayList<Record>();
+	}
+
+	@Test
+	public void testExecutesInOrder() {
+		CommandProcessor processor = new CommandProcessor(8,
+				OverflowPolicy.REJECT);
+		List<Record> commands = new ArrayList<Record>();
+		for (int i = 0; i < 5; i++) {
+			Record cmd = new Record(worm, executed);
+			commands.add(cmd);
+			assertTrue(processor.enqueueCommand(cmd));
+		}
+		assertEquals(5, processor.getQueueLength());
+		processor.advanceCommandQueue(0);
+		assertEquals(commands, executed);
+		assertTrue(processor.isIdle());
+	}
+
+	@Test
+	public void testRejectWhenFull() {
+		CommandProcessor processor = new CommandProcessor(4,
+				OverflowPolicy.REJECT);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(processor.enqueueCommand(new Record(worm, executed)));
+		}
+		assertFalse(processor.enqueueCommand(new Record(worm, executed)));
+		assertFalse(processor.enqueueCommand(new Record(worm, executed)));
+		assertEquals(2, processor.getNbRejectedCommands());
+		assertEquals(4, processor.getQueueLength());
+
+		processor.advanceCommandQueue(0);
+		assertEquals(4, executed.size());
+		assertTrue(processor.enqueueCommand(new Record(worm, executed)));
+		assertEquals(2, processor.getNbRejectedCommands());
+	}
+
+	@Test
+	public void testWaitUntilConsumerPolls() throws InterruptedException {
+		final CommandProcessor processor = new CommandProcessor(2,
+				OverflowPolicy.WAIT);
+		assertTrue(processor.enqueueCommand(new Record(worm, executed)));
+		assertTrue(processor.enqueueCommand(new Record(worm, executed)));
+		final Record last = new Record(worm, executed);
+		final boolean[] enqueued = new boolean[1];
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				enqueued[0] = processor.enqueueCommand(last);
+			}
+		};
+		producer.start();
+		producer.join(200);
+		// the queue is full, so the producer is still waiting
+		assertTrue(producer.isAlive());
+
+		processor.advanceCommandQueue(0);
+		producer.join(10000);
+		assertFalse(producer.isAlive());
+		assertTrue(enqueued[0]);
+		assertEquals(0, processor.getNbRejectedCommands());
+
+		processor.advanceCommandQueue(0);
+		assertEquals(3, executed.size());
+		assertSame(last, executed.get(2));
+	}
+}
@@ -1,6 +1,9 @@
 package worms.model;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -42,6 +45,171 @@ public class PartialFacadeTest {
 		assertEquals(5, facade.getY(worm), EPS);
 	}
 
+	@Test
+	public void testFillStates() {
+		Worm worm1 = facade.createWorm(1, 2, 0.5, 1, "Test");
+		Worm worm2 = facade.createWorm(3, 4, 1.5, 2, "Other");
+		double[] xs = new double[2];
+		double[] radii = new double[2];
+		int[] actionPoints = new int[2];
+		facade.fillStates(Arrays.asList(worm1, worm2), xs, null, null, radii,
+				actionPoints, null);
+		assertEquals(1, xs[0], EPS);
+		assertEquals(3, xs[1], EPS);
+		assertEquals(1, radii[0], EPS);
+		assertEquals(2, radii[1], EPS);
+		assertEquals(facade.getActionPoints(worm2), actionPoints[1]);
+	}
+
+	@Test(expected = ModelException.class)
+	public void testFillStatesArrayTooSmall() {
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		facade.fillStates(Arrays.asList(worm, worm), new double[1], null,
+				null, null, null, null);
+	}
+
+	@Test
+	public void testMoveAll() {
+		Worm worm1 = facade.createWorm(0, 0, 0, 1, "Test");
+		Worm worm2 = facade.createWorm(0, 0, Math.PI / 2, 1, "Test");
+		List<Worm> worms = Arrays.asList(worm1, worm2);
+		assertEquals(2, facade.moveAll(worms, 5));
+		assertEquals(5, facade.getX(worm1), EPS);
+		assertEquals(5, facade.getY(worm2), EPS);
+	}
+
+	@Test
+	public void testMoveAllCannotMove() {
+		Worm worm1 = facade.createWorm(0, 0, 0, 1, "Test");
+		Worm worm2 = facade.createWorm(0, 0, 0, 1, "Test");
+		facade.move(worm2, facade.getActionPoints(worm2));
+		double x = facade.getX(worm2);
+		assertEquals(1, facade.moveAll(Arrays.asList(worm1, worm2), 1));
+		assertEquals(1, facade.getX(worm1), EPS);
+		assertEquals(x, facade.getX(worm2), EPS);
+	}
+
+	@Test
+	public void testTurnAll() {
+		Worm worm1 = facade.createWorm(0, 0, 0, 1, "Test");
+		Worm worm2 = facade.createWorm(0, 0, 1, 1, "Test");
+		assertEquals(2, facade.turnAll(Arrays.asList(worm1, worm2), 0.5));
+		assertEquals(0.5, facade.getOrientation(worm1), EPS);
+		assertEquals(1.5, facade.getOrientation(worm2), EPS);
+	}
+
+	@Test
+	public void testTryMove() {
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		assertEquals(ActionResult.DONE, facade.tryMove(worm, 5));
+		assertEquals(5, facade.getX(worm), EPS);
+	}
+
+	@Test
+	public void testTryMoveNotEnoughActionPoints() {
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		int actionPoints = facade.getActionPoints(worm);
+		assertEquals(ActionResult.NOT_ENOUGH_ACTION_POINTS,
+				facade.tryMove(worm, actionPoints + 1));
+		assertEquals(0, facade.getX(worm), EPS);
+		assertEquals(actionPoints, facade.getActionPoints(worm));
+	}
+
+	@Test
+	public void testTryMoveInvalidArgument() {
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		assertEquals(ActionResult.INVALID_ARGUMENT, facade.tryMove(worm, -1));
+		assertEquals(ActionResult.INVALID_ARGUMENT, facade.tryMove(null, 1));
+	}
+
+	@Test
+	public void testTryTurn() {
+		Worm worm = facade.createWorm(0, 0, 1, 1, "Test");
+		assertEquals(ActionResult.DONE, facade.tryTurn(worm, 0.5));
+		assertEquals(1.5, facade.getOrientation(worm), EPS);
+		assertEquals(ActionResult.INVALID_ARGUMENT,
+				facade.tryTurn(worm, Double.NaN));
+		assertEquals(ActionResult.INVALID_ARGUMENT,
+				facade.tryTurn(worm, Double.NEGATIVE_INFINITY));
+	}
+
+	@Test
+	public void testTryMoveCostOverflowingInt() {
+		Worm worm = facade.createWorm(0, 0, Math.PI / 2, 0.5, "Probe");
+		int actionPoints = facade.getActionPoints(worm);
+		assertEquals(ActionResult.NOT_ENOUGH_ACTION_POINTS,
+				facade.tryMove(worm, 858993460));
+		assertEquals(ActionResult.NOT_ENOUGH_ACTION_POINTS,
+				facade.tryMove(worm, Integer.MAX_VALUE));
+		assertEquals(0, facade.getY(worm), EPS);
+		assertEquals(actionPoints, facade.getActionPoints(worm));
+	}
+
+	@Test(timeout = 1000)
+	public void testTryTurnExtremeAngles() {
+		Worm worm = facade.createWorm(0, 0, 1, 1, "Test");
+		assertEquals(ActionResult.DONE, facade.tryTurn(worm, -1e20));
+		assertEquals(ActionResult.DONE, facade.tryTurn(worm, 1e20));
+		assertEquals(ActionResult.DONE, facade.tryTurn(worm, -1e7));
+		assertEquals(ActionResult.DONE, facade.tryTurn(worm, -Double.MAX_VALUE));
+		double direction = facade.getOrientation(worm);
+		assertTrue((direction >= 0) && (direction < 2 * Math.PI));
+	}
+
+	@Test(timeout = 1000)
+	public void testTryTurnTinyNegativeAngle() {
+		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
+		facade.tryTurn(worm, -1e-20);
+		double direction = facade.getOrientation(worm);
+		assertTrue((direction >= 0) && (direction < 2 * Math.PI));
+	}
+
+	@Test
+	public void testTryTurnNotEnoughActionPoints() {
+		Worm worm = facade.restoreWorm(0, 0, 1, 1, "Test", 1);
+		assertEquals(ActionResult.NOT_ENOUGH_ACTION_POINTS,
+				facade.tryTurn(worm, Math.PI));
+		assertEquals(1, facade.getOrientation(worm), EPS);
+	}
+
+	@Test
+	public void testTryJump() {
+		Worm worm = facade.createWorm(0, 0, Math.PI / 4, 1, "Test");
+		assertEquals(ActionResult.DONE, facade.tryJump(worm));
+		assertEquals(0, facade.getActionPoints(worm));
+	}
+
+	@Test
+	public void testTryJumpCannotJump() {
+		Worm worm = facade.createWorm(0, 0, 3 * Math.PI / 2, 1, "Test");
+		assertEquals(ActionResult.CANNOT_JUMP, facade.tryJump(worm));
+		assertEquals(0, facade.getX(worm), EPS);
+	}
+
+	@Test
+	public void testRestoreWorm() {
+		Worm worm = facade.restoreWorm(1, 2, 0.5, 1, "Test", 100);
+		assertEquals(1, facade.getX(worm), EPS);
+		assertEquals(2, facade.getY(worm), EPS);
+		assertEquals(0.5, facade.getOrientation(worm), EPS);
+		assertEquals("Test", facade.getName(worm));
+		assertEquals(100, facade.getActionPoints(worm));
+	}
+
+	@Test
+	public void testRestoreWormActionPointsLimited() {
+		Worm worm = facade.restoreWorm(0, 0, 0, 1, "Test", 5000);
+		assertEquals(facade.getMaxActionPoints(worm),
+				facade.getActionPoints(worm));
+		worm = facade.restoreWorm(0, 0, 0, 1, "Test", -1);
+		assertEquals(0, facade.getActionPoints(worm));
+	}
+
+	@Test(expected = ModelException.class)
+	public void testRestoreWormInvalidName() {
+		facade.restoreWorm(0, 0, 0, 1, "test", 0);
+	}
+
 	@Test(expected = ModelException.class)
 	public void testJumpException() {
 		Worm worm = facade.createWorm(0, 0, 3 * Math.PI / 2, 1, "Test");
@@ -0,0 +1,223 @@
+package worms.model;
+
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import worms.util.Util;
+
+
+/**
+ *
+ * A class collecting tests for the class of worm worlds.
+ *
+ * @version 1.0
+ * @author Jonas Thys & Jeroen Reinenbergh
+ *
+ *
+ */
+
+public class WormWorldTest {
+
+/**
+ * Variable referencing a mutable world.
+ */
+private WormWorld world;
+
+/**
+ * Set up a mutable test fixture
+ *
+ * @post	The variable world references a new world containing the following worms:
+ *			Rocky has a radius of 2, direction of 3.045 and position (0,0)
+ *			Rambo has a radius of 1, direction of 1 and position (5,4)
+ *			Tarzan has a radius of 3, direction of 4.5 and position (10,9)
+ */
+@Before
+public void setUpMutableFixture() throws Exception {
+	world = new WormWorld(1);
+	world.add("Rocky", 2, 3.045, 0, 0);
+	world.add("Rambo", 1, 1, 5, 4);
+	world.add("Tarzan", 3, 4.5, 10, 9);
+}
+
+@Test
+public void add_LegalCase() throws Exception {
+	assertEquals(3, world.getNumberOfWorms());
+	assertEquals("Rambo", world.getName(1));
+	assertEquals(5, world.getX(1), Util.DEFAULT_EPSILON);
+	assertEquals(4, world.getY(1), Util.DEFAULT_EPSILON);
+	assertEquals(1, world.getDirection(1), Util.DEFAULT_EPSILON);
+	assertEquals(1, world.getRadius(1), Util.DEFAULT_EPSILON);
+	assertEquals(4448, world.getNumberOfActionPoints(1));
+	assertEquals(4448, world.getMaxNumberOfActionPoints(1));
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void add_InvalidName() throws Exception {
+	world.add("joske", 1, 1, 5, 4);
+}
+
+@Test (expected = IndexOutOfBoundsException.class)
+public void getX_InvalidIndex() throws Exception {
+	world.getX(3);
+}
+
+@Test
+public void moveAll_SameAsActiveMove() throws Exception {
+	Worm worm = new Worm("Rocky", 2, 3.045, 0, 0);
+	worm.activeMove(5);
+	assertEquals(3, world.moveAll(5));
+	assertEquals(worm.getX(), world.getX(0), Util.DEFAULT_EPSILON);
+	assertEquals(worm.getY(), world.getY(0), Util.DEFAULT_EPSILON);
+	assertEquals(worm.getNumberOfActionPoints(), world.getNumberOfActionPoints(0));
+}
+
+@Test
+public void moveAll_CannotMove() throws Exception {
+	assertEquals(0, world.moveAll(100000));
+	assertEquals(5, world.getX(1), Util.DEFAULT_EPSILON);
+	assertEquals(4448, world.getNumberOfActionPoints(1));
+}
+
+@Test
+public void computeMoves_SameAsActiveMove() throws Exception {
+	Worm worm = new Worm("Rocky", 2, 3.045, 0, 0);
+	worm.activeMove(5);
+	double[] newXs = new double[3];
+	double[] newYs = new double[3];
+	int[] costs = new int[3];
+	boolean[] canMove = new boolean[3];
+	assertEquals(3, world.computeMoves(5, newXs, newYs, costs, canMove));
+	assertEquals(worm.getX(), newXs[0], Util.DEFAULT_EPSILON);
+	assertEquals(worm.getY(), newYs[0], Util.DEFAULT_EPSILON);
+	assertEquals(world.getNumberOfActionPoints(0) - worm.getNumberOfActionPoints(), costs[0]);
+	assertTrue(canMove[0]);
+	assertEquals(0, world.getX(0), Util.DEFAULT_EPSILON);
+}
+
+@Test
+public void computeMoves_CannotMove() throws Exception {
+	boolean[] canMove = new boolean[3];
+	assertEquals(0, world.computeMoves(100000, new double[3], new double[3], new int[3], canMove));
+	assertFalse(canMove[1]);
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void computeMoves_BufferTooSmall() throws Exception {
+	world.computeMoves(1, new double[3], new double[2], new int[3], new boolean[3]);
+}
+
+@Test
+public void moveAll_AfterTurnAll() throws Exception {
+	Worm worm = new Worm("Rambo", 1, 1, 5, 4);
+	worm.activeTurn(1.5);
+	worm.activeMove(2);
+	world.turnAll(1.5);
+	world.moveAll(2);
+	assertEquals(worm.getX(), world.getX(1), Util.DEFAULT_EPSILON);
+	assertEquals(worm.getY(), world.getY(1), Util.DEFAULT_EPSILON);
+	assertEquals(worm.getNumberOfActionPoints(), world.getNumberOfActionPoints(1));
+}
+
+@Test
+public void turnAll_SameAsActiveTurn() {
+	Worm worm = new Worm("Rocky", 2, 3.045, 0, 0);
+	worm.activeTurn(1.5);
+	assertEquals(3, world.turnAll(1.5));
+	assertEquals(worm.getDirection(), world.getDirection(0), Util.DEFAULT_EPSILON);
+	assertEquals(worm.getNumberOfActionPoints(), world.getNumberOfActionPoints(0));
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void turnAll_NaN() {
+	world.turnAll(Double.NaN);
+}
+
+@Test
+public void turnAll_InvalidAngleLeavesWorms() {
+	try {
+		world.turnAll(Double.POSITIVE_INFINITY);
+		fail();
+	} catch (IllegalArgumentException exc) {
+		assertEquals(1, world.getDirection(1), Util.DEFAULT_EPSILON);
+		assertEquals(4448, world.getNumberOfActionPoints(1));
+	}
+}
+
+@Test (timeout = 1000)
+public void turnAll_HugeNegativeAngle() {
+	Worm worm = new Worm("Rocky", 2, 3.045, 0, 0);
+	worm.activeTurn(-1e20);
+	assertEquals(3, world.turnAll(-1e20));
+	assertEquals(worm.getDirection(), world.getDirection(0), Util.DEFAULT_EPSILON);
+	assertEquals(worm.getNumberOfActionPoints(), world.getNumberOfActionPoints(0));
+	for (int i = 0; i < 3; i++)
+		assertTrue((world.getDirection(i) >= 0) && (world.getDirection(i) < 2 * Math.PI));
+}
+
+@Test
+public void moveAll_CostOverflowsInt() throws Exception {
+	// each step costs more than one action point, so these costs wrap around in int arithmetic
+	assertEquals(0, world.moveAll(Integer.MAX_VALUE));
+	assertEquals(5, world.getX(1), Util.DEFAULT_EPSILON);
+	assertEquals(4448, world.getNumberOfActionPoints(1));
+}
+
+@Test
+public void computeMoves_CostOverflowsInt() throws Exception {
+	int[] costs = new int[3];
+	boolean[] canMove = new boolean[3];
+	assertEquals(0, world.computeMoves(Integer.MAX_VALUE, new double[3], new double[3], costs, canMove));
+	assertEquals(Integer.MAX_VALUE, costs[1]);
+	assertFalse(canMove[1]);
+}
+
+@Test
+public void jumpAll_SameAsJump() {
+	Worm worm = new Worm("Rocky", 2, 3.045, 0, 0);
+	worm.jump();
+	assertEquals(2, world.jumpAll());
+	assertEquals(worm.getX(), world.getX(0), Util.DEFAULT_EPSILON);
+	assertEquals(0, world.getNumberOfActionPoints(0));
+	assertEquals(10, world.getX(2), Util.DEFAULT_EPSILON);
+}
+
+@Test
+public void jumpAll_BitIdenticalToJump() {
+	WormWorld others = new WormWorld();
+	Worm[] worms = new Worm[50];
+	for (int i = 0; i < worms.length; i++) {
+		worms[i] = new Worm("Rocky", 0.25 + i * 0.1, i * Math.PI / worms.length, i, -i, 100 * i);
+		others.add(worms[i]);
+		worms[i].jump();
+	}
+	assertEquals(worms.length, others.jumpAll());
+	for (int i = 0; i < worms.length; i++) {
+		assertEquals(worms[i].getX(), others.getX(i), 0);
+		assertEquals(worms[i].getY(), others.getY(i), 0);
+	}
+}
+
+@Test
+public void turnAll_SameCostsAsActiveTurn() {
+	for (int step = -200; step <= 200; step++) {
+		double angle = step * Math.PI / 60 + 1e-3;
+		Worm worm = new Worm("Rocky", 2, 3.045, 0, 0);
+		WormWorld single = new WormWorld();
+		single.add(worm);
+		worm.activeTurn(angle);
+		assertEquals(1, single.turnAll(angle));
+		assertEquals(worm.getDirection(), single.getDirection(0), 0);
+		assertEquals(worm.getNumberOfActionPoints(), single.getNumberOfActionPoints(0));
+	}
+}
+
+@Test
+public void getMass_SameAsWorm() {
+	Worm worm = new Worm("Rambo", 1, 1, 5, 4);
+	assertEquals(worm.getMass(), world.getMass(1), 0);
+	assertEquals(worm.getMaxNumberOfActionPoints(), world.getMaxNumberOfActionPoints(1));
+}
+
+}
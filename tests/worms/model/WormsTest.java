@@ -123,6 +123,22 @@ public void setName_InvalidCharacters() throws Exception {
 	worm3.setName("Wormpje!");
 }
 
+@Test (expected = IllegalArgumentException.class)
+public void setName_TooShort() throws Exception {
+	worm3.setName("W");
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void setName_NonAsciiLetter() throws Exception {
+	worm3.setName("W\u00f6rm");
+}
+
+@Test
+public void constructor_WithActionPoints() throws Exception {
+	Worm myWorm = new Worm("Joske",1,0,0,0,10);
+	assertEquals(10,myWorm.getNumberOfActionPoints());
+}
+
 @Test
 public void setRadius_LegalCase() throws Exception {
 	worm1.setRadius(3);
@@ -177,6 +193,18 @@ public void activeMove_CannotMove() throws Exception {
 	worm3.activeMove(2000);
 }
 
+@Test
+public void canMove_CostOverflowingInt() throws Exception {
+	Worm myWorm = new Worm("Probe", 0.5, Math.PI / 2, 0, 0);
+	assertFalse(myWorm.canMove(858993460));
+	assertFalse(myWorm.canMove(Integer.MAX_VALUE));
+}
+
+@Test (expected = UnsupportedOperationException.class)
+public void activeMove_CostOverflowingInt() throws Exception {
+	new Worm("Probe", 0.5, Math.PI / 2, 0, 0).activeMove(858993460);
+}
+
 @Test
 public void canTurn_LegalCaseTrue() {
 	assertTrue(worm3.canTurn(2));	
@@ -195,6 +223,25 @@ public void activeTurn_LegalCase() {
 	assertEquals(35573, worm1.getNumberOfActionPoints());
 }
 
+@Test
+public void canTurn_CostAroundWholeActionPoints() {
+	for (int cost = 1; cost <= 30; cost++) {
+		double angle = cost * Math.PI / 30;
+		assertTrue(new Worm("Rocky", 2, 3.045, 0, 0, cost).canTurn(Math.nextAfter(angle, 0)));
+		assertFalse(new Worm("Rocky", 2, 3.045, 0, 0, cost - 1).canTurn(Math.nextAfter(angle, 0)));
+		assertFalse(new Worm("Rocky", 2, 3.045, 0, 0, cost - 1).canTurn(-Math.nextAfter(angle, 0)));
+	}
+}
+
+@Test
+public void activeMove_AfterTurn() throws Exception {
+	worm1.activeTurn(1.5);
+	worm1.activeMove(1);
+	assertEquals(2 * Math.cos(4.545), worm1.getX(), Util.DEFAULT_EPSILON);
+	assertEquals(2 * Math.sin(4.545), worm1.getY(), Util.DEFAULT_EPSILON);
+	assertEquals(35573 - 5, worm1.getNumberOfActionPoints());
+}
+
 @Test
 public void activeTurn_CannotTurn() {
 	worm1.jump();
@@ -213,6 +260,91 @@ public void jumpStep(){
 	assertEquals(5.326124001484975, worm3.jumpStep(1.0)[1], Util.DEFAULT_EPSILON);
 }
 
+@Test
+public void jumpStep_GivenBuffer(){
+	double[] result = new double[2];
+	worm3.jumpStep(1.0, result);
+	assertEquals(8.999883205192992, result[0], Util.DEFAULT_EPSILON);
+	assertEquals(5.326124001484975, result[1], Util.DEFAULT_EPSILON);
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void jumpStep_BufferTooSmall(){
+	worm3.jumpStep(1.0, new double[1]);
+}
+
+@Test
+public void jumpTrajectory_LegalCase(){
+	double[] result = new double[6];
+	worm3.jumpTrajectory(2, result);
+	assertEquals(5, result[0], Util.DEFAULT_EPSILON);
+	assertEquals(4, result[1], Util.DEFAULT_EPSILON);
+	assertEquals(worm3.jumpStep(worm3.jumpTime() / 2)[0], result[2], Util.DEFAULT_EPSILON);
+	assertEquals(worm3.jumpStep(worm3.jumpTime() / 2)[1], result[3], Util.DEFAULT_EPSILON);
+	assertEquals(worm3.jumpStep(worm3.jumpTime())[0], result[4], Util.DEFAULT_EPSILON);
+	assertEquals(worm3.jumpStep(worm3.jumpTime())[1], result[5], Util.DEFAULT_EPSILON);
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void jumpTrajectory_BufferTooSmall(){
+	worm3.jumpTrajectory(2, new double[5]);
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void jumpTrajectory_NoIntervals(){
+	worm3.jumpTrajectory(0, new double[2]);
+}
+
+@Test
+public void jumpValues_AfterActiveTurn(){
+	worm1.jumpTime();
+	worm1.activeTurn(-2.5);
+	assertSameJump(new Worm("Rocky", 2, worm1.getDirection(), 0, 0, worm1.getNumberOfActionPoints()), worm1);
+}
+
+@Test
+public void jumpValues_AfterActiveMove() throws Exception {
+	worm1.jumpTime();
+	worm1.activeMove(1000);
+	assertSameJump(new Worm("Rocky", 2, 3.045, worm1.getX(), worm1.getY(), worm1.getNumberOfActionPoints()), worm1);
+}
+
+@Test
+public void jumpValues_AfterSetRadius(){
+	worm1.jumpTime();
+	worm1.setRadius(3);
+	assertSameJump(new Worm("Rocky", 3, 3.045, 0, 0, worm1.getNumberOfActionPoints()), worm1);
+}
+
+/**
+ * Check whether the given worm jumps as the given fresh worm, which has the same state.
+ */
+private static void assertSameJump(Worm expected, Worm worm){
+	assertEquals(expected.jumpTime(), worm.jumpTime(), 0);
+	assertEquals(expected.jumpStep(0.5)[0], worm.jumpStep(0.5)[0], 0);
+	assertEquals(expected.jumpStep(0.5)[1], worm.jumpStep(0.5)[1], 0);
+}
+
+@Test
+public void getMass_AfterSetRadius(){
+	worm1.getMass();
+	worm1.setRadius(3);
+	Worm expected = new Worm("Rocky", 3, 3.045, 0, 0);
+	assertEquals(expected.getMass(), worm1.getMass(), 0);
+	assertEquals(expected.getMaxNumberOfActionPoints(), worm1.getMaxNumberOfActionPoints());
+	assertEquals(120109, worm1.getMaxNumberOfActionPoints());
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void jumpTrajectory_NumberOfCoordinatesOverflowingInt(){
+	worm3.jumpTrajectory(Integer.MAX_VALUE, new double[6]);
+}
+
+@Test (expected = IllegalArgumentException.class)
+public void jumpTrajectory_NumberOfCoordinatesOverflowingToNegative(){
+	worm3.jumpTrajectory(Integer.MAX_VALUE / 2 + 1, new double[6]);
+}
+
 @Test
 public void Jump_LegalCase() throws Exception {
 	worm1.jump();
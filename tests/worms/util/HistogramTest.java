@@ -0,0 +1,130 @@
+package worms.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	/**
+	 * The value reported for the 50th percentile of a histogram of the given
+	 * value and a larger one: the highest value of the bucket of the given
+	 * value
+	 */
+	private static long highestValueOfBucket(long value) {
+		Histogram histogram = new Histogram();
+		histogram.record(value);
+		histogram.record(Long.MAX_VALUE);
+		return histogram.getValueAtPercentile(50);
+	}
+
+	@Test
+	public void testSmallValuesAreExact() {
+		for (long value = 0; value < 64; value++) {
+			assertEquals(value, highestValueOfBucket(value));
+		}
+	}
+
+	@Test
+	public void testPowersOfTwo() {
+		for (int exponent = 6; exponent < 63; exponent++) {
+			long value = 1L << exponent;
+			// the last bucket below the power of two ends right before it
+			assertEquals(value - 1, highestValueOfBucket(value - 1));
+			// the first bucket of the power of two is 1/32 of it wide
+			long width = value >> 5;
+			assertEquals(value + width - 1, highestValueOfBucket(value));
+			assertEquals(value + width - 1,
+					highestValueOfBucket(value + width - 1));
+			assertEquals(value + 2 * width - 1,
+					highestValueOfBucket(value + width));
+		}
+	}
+
+	@Test
+	public void testMaxValue() {
+		Histogram histogram = new Histogram();
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(Long.MAX_VALUE - 1);
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(0));
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+	}
+
+	@Test
+	public void testRelativeError() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+			long highest = highestValueOfBucket(value);
+			assertTrue(highest >= value);
+			assertTrue(highest - value <= value / 32);
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		Histogram histogram = new Histogram();
+		for (long value = 1; value <= 100; value++) {
+			histogram.record(value);
+		}
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(1, histogram.getValueAtPercentile(1));
+		assertEquals(50, histogram.getValueAtPercentile(50));
+		// 64 and 65 share a bucket
+		assertEquals(65, histogram.getValueAtPercentile(64));
+		assertEquals(65, histogram.getValueAtPercentile(65));
+		assertEquals(100, histogram.getValueAtPercentile(100));
+		assertEquals(100, histogram.getValueAtPercentile(200));
+		assertEquals(100, histogram.getTotalCount());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 0);
+	}
+
+	@Test
+	public void testEmpty() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getValueAtPercentile(0));
+		assertEquals(0, histogram.getValueAtPercentile(100));
+		assertEquals(0, histogram.getMean(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeValue() {
+		new Histogram().record(-1);
+	}
+
+	@Test
+	public void testAdd() {
+		Histogram all = new Histogram();
+		Histogram low = new Histogram();
+		Histogram high = new Histogram();
+		for (long value = 0; value < 1000; value++) {
+			all.record(value * value);
+			(value < 300 ? low : high).record(value * value);
+		}
+		low.add(high);
+		assertEquals(all.getTotalCount(), low.getTotalCount());
+		assertEquals(all.getMax(), low.getMax());
+		assertEquals(all.getMean(), low.getMean(), 0);
+		for (int percentile = 0; percentile <= 100; percentile++) {
+			assertEquals(all.getValueAtPercentile(percentile),
+					low.getValueAtPercentile(percentile));
+		}
+		// the added histogram is left untouched
+		assertEquals(700, high.getTotalCount());
+	}
+
+	@Test
+	public void testReset() {
+		Histogram histogram = new Histogram();
+		histogram.record(1000);
+		histogram.reset();
+		assertEquals(0, histogram.getTotalCount());
+		assertEquals(0, histogram.getMax());
+		histogram.record(3);
+		assertEquals(3, histogram.getValueAtPercentile(100));
+	}
+}
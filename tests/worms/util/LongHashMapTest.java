@@ -0,0 +1,60 @@
+package worms.util;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongHashMapTest {
+
+	@Test
+	public void testPutGet() {
+		LongHashMap<String> map = new LongHashMap<String>();
+		assertNull(map.put(0, "zero"));
+		assertNull(map.put(Long.MIN_VALUE, "min"));
+		assertEquals("zero", map.put(0, "nul"));
+		assertEquals("nul", map.get(0));
+		assertEquals("min", map.get(Long.MIN_VALUE));
+		assertNull(map.get(1));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void testRemove() {
+		LongHashMap<String> map = new LongHashMap<String>();
+		map.put(5, "five");
+		assertEquals("five", map.remove(5));
+		assertNull(map.remove(5));
+		assertNull(map.get(5));
+		assertTrue(map.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPutNull() {
+		new LongHashMap<String>().put(1, null);
+	}
+
+	@Test
+	public void testSameAsHashMap() {
+		LongHashMap<Long> map = new LongHashMap<Long>();
+		Map<Long, Long> expected = new HashMap<Long, Long>();
+		Random random = new Random(3);
+		for (int i = 0; i < 100000; i++) {
+			// few distinct keys, so that removals hit entries in long probe
+			// sequences
+			long key = ((long) random.nextInt(64) << 32) | random.nextInt(64);
+			if (random.nextBoolean()) {
+				assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+			} else {
+				assertEquals(expected.remove(key), map.remove(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package worms.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class MpscRingBufferTest {
+
+	@Test
+	public void testFifoOrder() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(8);
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 5; i++) {
+				assertTrue(buffer.offer(i));
+			}
+			assertEquals(0, (int) buffer.peek());
+			for (int i = 0; i < 5; i++) {
+				assertEquals(i, (int) buffer.poll());
+			}
+			assertNull(buffer.poll());
+			assertTrue(buffer.isEmpty());
+		}
+	}
+
+	@Test
+	public void testCapacityRoundedUpToPowerOfTwo() {
+		assertEquals(8, new MpscRingBuffer<Integer>(5).getCapacity());
+		assertEquals(2, new MpscRingBuffer<Integer>(1).getCapacity());
+	}
+
+	@Test
+	public void testSmallestCapacityKeepsElements() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(1);
+		assertTrue(buffer.offer(1));
+		assertTrue(buffer.offer(2));
+		assertFalse(buffer.offer(3));
+		assertEquals(1, (int) buffer.poll());
+		assertEquals(2, (int) buffer.poll());
+	}
+
+	@Test
+	public void testOfferFailsWhenFull() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+		assertEquals(4, buffer.size());
+		assertEquals(0, (int) buffer.poll());
+		assertTrue(buffer.offer(4));
+		assertFalse(buffer.offer(5));
+		for (int i = 1; i <= 4; i++) {
+			assertEquals(i, (int) buffer.poll());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new MpscRingBuffer<Integer>(0);
+	}
+
+	@Test
+	public void testMultipleProducers() throws InterruptedException {
+		final int nbProducers = 4;
+		final int nbElements = 100000;
+		final MpscRingBuffer<long[]> buffer = new MpscRingBuffer<long[]>(64);
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> producers = new ArrayList<Thread>();
+		for (int p = 0; p < nbProducers; p++) {
+			final int producer = p;
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < nbElements; i++) {
+						long[] element = { producer, i };
+						while (!buffer.offer(element)) {
+							Thread.yield();
+						}
+					}
+				}
+			};
+			thread.start();
+			producers.add(thread);
+		}
+		start.countDown();
+
+		long[] next = new long[nbProducers];
+		long nbPolled = 0;
+		long deadline = System.currentTimeMillis() + 60000;
+		while (nbPolled < (long) nbProducers * nbElements) {
+			long[] element = buffer.poll();
+			if (element == null) {
+				assertTrue("producers stalled",
+						System.currentTimeMillis() < deadline);
+				Thread.yield();
+				continue;
+			}
+			// each element is polled once, in the order of its producer
+			assertEquals(next[(int) element[0]], element[1]);
+			next[(int) element[0]]++;
+			nbPolled++;
+		}
+		for (Thread thread : producers) {
+			thread.join();
+		}
+		assertNull(buffer.poll());
+		for (int p = 0; p < nbProducers; p++) {
+			assertEquals(nbElements, next[p]);
+		}
+	}
+}